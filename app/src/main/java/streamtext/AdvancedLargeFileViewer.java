@@ -11,17 +11,22 @@ import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
 import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.channels.AsynchronousFileChannel;
-import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 public class AdvancedLargeFileViewer extends Application {
 
@@ -32,6 +37,10 @@ public class AdvancedLargeFileViewer extends Application {
     private TextField searchField;
     private ComboBox<String> encodingCombo;
     private ComboBox<Integer> chunkSizeCombo;
+    private CheckBox autoChunkCheck;
+    private CheckMenuItem wrapTextItem;
+    private CheckMenuItem hexViewItem;
+    private BorderPane rootPane;
 
     // Dark mode support
     private Scene scene;
@@ -42,13 +51,65 @@ public class AdvancedLargeFileViewer extends Application {
     private HBox optionsBar;
     private VBox infoBox;
 
-    private AsynchronousFileChannel fileChannel;
+    private ChunkSource source;
     private long fileSize;
+    // Flux (stdin, tube) : premier chunk affiché dès que des données arrivent, et suivi de la fin
+    private boolean awaitingFirstChunk = false;
+    // Octets réellement couverts par le chunk courant : la navigation avance de cette quantité,
+    // pas de currentChunkSize que le mode Auto peut changer entre deux chunks
+    private int displayedBytes = 0;
     private long currentPosition = 0;
     private int currentChunkSize = 1024 * 1024;
     private Charset currentCharset = StandardCharsets.UTF_8;
     private List<Long> searchResults = new ArrayList<>();
 
+    // Taille de chunk adaptative, bornée par le budget mémoire partagé
+    private final MemoryBudget memoryBudget = MemoryBudget.getInstance();
+    private final ChunkGovernor chunkGovernor = new ChunkGovernor(memoryBudget, currentChunkSize);
+    private boolean updatingChunkCombo = false;
+    // Texte décodé du chunk affiché (TextArea ou vue colorée), compté dans le budget partagé
+    private long displayReservation = 0;
+    // Vue hexadécimale : 78 caractères de 2 octets pour 16 octets lus
+    private static final int HEX_DUMP_BYTES_PER_BYTE = 10;
+    // Mesure d'affichage en cours, terminée après la mise en page du pulse suivant (-1 : aucune)
+    private long pendingRenderStart = -1;
+    private int pendingRenderBytes = 0;
+    private long pendingReadNanos = 0;
+    // Longueur d'une ligne complète (16 octets) de la vue hexadécimale, saut de ligne compris
+    private static final int HEX_ROW_CHARS = 81;
+    private boolean autoChunkSize = true;
+
+    // Toutes les tâches de fond passent par le planificateur central
+    private final TaskScheduler scheduler = TaskScheduler.getInstance();
+    private Future<?> currentRead;
+    private int loadSequence = 0;
+    // Flux qui grossit : le chunk affiché est complété par les octets arrivés au lieu d'être relu
+    private int shownSequence = -1;
+    private boolean appendInFlight = false;
+    // Charset des octets ajoutés en mode texte (UTF-16 : boutisme donné par le BOM du chunk)
+    private Charset tailCharset = StandardCharsets.UTF_8;
+
+    // Sélection à appliquer après le chargement d'un chunk (ouverture depuis la recherche dans un dossier)
+    private long pendingSelectionOffset = -1;
+    private int pendingSelectionLength = 0;
+    private FolderSearchWindow folderSearchWindow;
+    private static final int SELECTION_CONTEXT_BYTES = 4096;
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    // Profil du fichier (échantillonnage à l'ouverture) : encodage et mode d'affichage choisis avant le premier chunk
+    private FileProfiler.Profile fileProfile;
+    private boolean hexView = false;
+    private boolean updatingEncodingCombo = false;
+
+    // Coloration syntaxique des logs : vue par lignes remplaçant le TextArea, créée à la première activation
+    private HighlightedLogView logView;
+    private boolean highlighting = false;
+
+    // Exécution d'entraînement pour l'archive CDS : on quitte après le premier chunk
+    private boolean cdsTraining = false;
+    // Construction des barres d'outils, lancée une fois la première frame rendue (null ensuite)
+    private Runnable afterFirstFrame;
+
     @Override
     public void start(Stage primaryStage) {
         primaryStage.setTitle("StreamText by Axel");
@@ -59,10 +120,6 @@ public class AdvancedLargeFileViewer extends Application {
         textArea.setStyle("-fx-font-family: 'Consolas', 'Courier New', monospace; -fx-font-size: 11px;");
 
         MenuBar menuBar = createMenuBar(primaryStage);
-        mainToolBar = createMainToolBar(primaryStage);
-        searchBar = createSearchBar();
-        navigationBar = createNavigationBar();
-        optionsBar = createOptionsBar();
 
         progressBar = new ProgressBar(0);
         progressBar.setPrefWidth(Double.MAX_VALUE);
@@ -76,30 +133,53 @@ public class AdvancedLargeFileViewer extends Application {
         infoBox.setPadding(new Insets(5, 10, 5, 10));
         infoBox.setStyle("-fx-background-color: #F5F5F5;");
 
-        VBox topContainer = new VBox(menuBar, mainToolBar, searchBar, navigationBar, optionsBar, progressBar);
+        // Les barres d'outils sont construites après l'affichage de la fenêtre (démarrage rapide)
+        VBox topContainer = new VBox(menuBar, progressBar);
 
-        BorderPane root = new BorderPane();
-        root.setTop(topContainer);
-        root.setCenter(textArea);
-        root.setBottom(infoBox);
+        rootPane = new BorderPane();
+        rootPane.setTop(topContainer);
+        rootPane.setCenter(textArea);
+        rootPane.setBottom(infoBox);
 
-        scene = new Scene(root, 1200, 800);
+        scene = new Scene(rootPane, 1200, 800);
 
         primaryStage.setScene(scene);
-        primaryStage.show();
+        scene.addPostLayoutPulseListener(this::onLayoutPulse);
 
-        primaryStage.setOnCloseRequest(e -> closeFileChannel());
+        primaryStage.setOnCloseRequest(e -> {
+            closeFileChannel();
+            scheduler.shutdown();
+        });
         updateMemoryInfo();
 
-        // Vérification auto-update au démarrage
-        new Thread(() -> {
-            try {
-                Thread.sleep(3000);
-                Platform.runLater(() -> checkForUpdates(false));
-            } catch (InterruptedException e) {
-                // Ignorer
+        // Fichier passé en argument : ouvert tout de suite, avant la construction des barres
+        List<String> args = getParameters().getRaw();
+        cdsTraining = args.contains("--cds-training");
+        args.stream().filter(arg -> !arg.startsWith("--")).findFirst().ifPresent(arg -> {
+            StartupMetrics.markLaunchFile();
+            if (arg.equals("-")) {
+                openStreamAsync(() -> new FileInputStream(FileDescriptor.in).getChannel(), "entrée standard");
+            } else {
+                openFileAsync(new File(arg));
             }
-        }).start();
+        });
+
+        // Un runLater posté ici passerait avant le premier pulse : les barres attendent la première frame
+        afterFirstFrame = () -> {
+            StartupMetrics.markFirstWindow();
+            mainToolBar = createMainToolBar(primaryStage);
+            searchBar = createSearchBar();
+            navigationBar = createNavigationBar();
+            optionsBar = createOptionsBar();
+            topContainer.getChildren().addAll(1, List.of(mainToolBar, searchBar, navigationBar, optionsBar));
+            if (isDarkMode) toggleDarkMode(true);
+        };
+        primaryStage.show();
+
+        if (cdsTraining) return;
+
+        // Vérification auto-update au démarrage
+        scheduler.schedule(TaskScheduler.Lane.HOUSEKEEPING, 3000, () -> Platform.runLater(() -> checkForUpdates(false)));
     }
 
     private MenuBar createMenuBar(Stage stage) {
@@ -108,15 +188,25 @@ public class AdvancedLargeFileViewer extends Application {
         Menu fileMenu = new Menu("Fichier");
         MenuItem openItem = new MenuItem("Ouvrir...");
         openItem.setOnAction(e -> openFile(stage));
+        MenuItem folderSearchItem = new MenuItem("Rechercher dans un dossier...");
+        folderSearchItem.setOnAction(e -> showFolderSearch(stage));
         MenuItem closeItem = new MenuItem("Fermer");
         closeItem.setOnAction(e -> closeCurrentFile());
         MenuItem exitItem = new MenuItem("Quitter");
         exitItem.setOnAction(e -> Platform.exit());
-        fileMenu.getItems().addAll(openItem, closeItem, new SeparatorMenuItem(), exitItem);
+        fileMenu.getItems().addAll(openItem, folderSearchItem, closeItem, new SeparatorMenuItem(), exitItem);
 
         Menu viewMenu = new Menu("Affichage");
-        CheckMenuItem wrapTextItem = new CheckMenuItem("Retour à la ligne");
+        wrapTextItem = new CheckMenuItem("Retour à la ligne");
         wrapTextItem.setOnAction(e -> textArea.setWrapText(wrapTextItem.isSelected()));
+        hexViewItem = new CheckMenuItem("Vue hexadécimale");
+        hexViewItem.setOnAction(e -> {
+            hexView = hexViewItem.isSelected();
+            updateCenterView();
+            if (source != null) loadChunkAtPosition(currentPosition);
+        });
+        CheckMenuItem highlightItem = new CheckMenuItem("Coloration syntaxique");
+        highlightItem.setOnAction(e -> setHighlighting(highlightItem.isSelected()));
 
         // Dark mode toggle
         CheckMenuItem darkModeItem = new CheckMenuItem("Mode sombre");
@@ -124,7 +214,7 @@ public class AdvancedLargeFileViewer extends Application {
 
         MenuItem refreshItem = new MenuItem("Rafraîchir");
         refreshItem.setOnAction(e -> loadChunkAtPosition(currentPosition));
-        viewMenu.getItems().addAll(wrapTextItem, darkModeItem, new SeparatorMenuItem(), refreshItem);
+        viewMenu.getItems().addAll(wrapTextItem, hexViewItem, highlightItem, darkModeItem, new SeparatorMenuItem(), refreshItem);
 
         Menu helpMenu = new Menu("Aide");
         MenuItem aboutItem = new MenuItem("À propos");
@@ -141,6 +231,9 @@ public class AdvancedLargeFileViewer extends Application {
 
     private void toggleDarkMode(boolean enable) {
         isDarkMode = enable;
+        if (logView != null) logView.setDarkMode(enable);
+        // Barres pas encore construites : le thème sera appliqué à leur création
+        if (mainToolBar == null) return;
 
         if (isDarkMode) {
             // Appliquer le thème sombre
@@ -357,28 +450,42 @@ public class AdvancedLargeFileViewer extends Application {
     private HBox createOptionsBar() {
         Label encodingLabel = new Label("Encodage:");
         encodingCombo = new ComboBox<>();
-        encodingCombo.getItems().addAll("UTF-8", "ISO-8859-1", "Windows-1252", "UTF-16");
-        encodingCombo.setValue("UTF-8");
+        encodingCombo.getItems().addAll("UTF-8", "ISO-8859-1", "Windows-1252", "UTF-16", "UTF-16LE", "UTF-16BE");
+        // Le profil du fichier ouvert en argument a pu choisir l'encodage avant la construction des barres
+        encodingCombo.setValue(encodingName(currentCharset));
         encodingCombo.setOnAction(e -> changeEncoding());
 
         Label chunkLabel = new Label("Taille chunk:");
         chunkSizeCombo = new ComboBox<>();
         chunkSizeCombo.getItems().addAll(512, 1024, 2048, 4096, 8192);
-        chunkSizeCombo.setValue(1024);
         chunkSizeCombo.setOnAction(e -> changeChunkSize());
         Label kbLabel = new Label("KB");
 
+        autoChunkCheck = new CheckBox("Auto");
+        autoChunkCheck.setSelected(autoChunkSize);
+        autoChunkCheck.setTooltip(new Tooltip("Adapter la taille du chunk à la vitesse du disque et de l'affichage"));
+        autoChunkCheck.setOnAction(e -> {
+            autoChunkSize = autoChunkCheck.isSelected();
+            if (autoChunkSize) applyChunkSize(recommendedChunkSize());
+        });
+        // La taille a pu être ajustée par un premier chunk chargé avant la construction de la barre
+        applyChunkSize(currentChunkSize);
+
         chunkSizeCombo.valueProperty().addListener((obs, oldVal, newVal) -> {
-            if (newVal == 8192) {
+            if (updatingChunkCombo || newVal == null) return;
+            // Avertir seulement si la taille choisie dépasse ce que le budget mémoire permet
+            if (newVal * 1024 > chunkGovernor.getMaxChunkSize(decodedBytesPerByte())) {
                 Alert alert = new Alert(Alert.AlertType.WARNING);
                 alert.setTitle("Attention");
                 alert.setHeaderText("Taille de chunk très grande");
-                alert.setContentText("Une taille de chunk de 8192 KB peut ralentir l'application et augmenter la consommation mémoire, surtout pour les fichiers très volumineux. Assurez-vous que votre système dispose de suffisamment de ressources avant de choisir cette option.");
+                alert.setContentText("Une taille de chunk de " + newVal + " KB dépasse le budget mémoire disponible (" +
+                        formatFileSize(chunkGovernor.getMaxChunkSize(decodedBytesPerByte())) + " max). La taille sera réduite automatiquement " +
+                        "si la mémoire vient à manquer.");
                 alert.showAndWait();
             }
         });
 
-        HBox optionsBar = new HBox(10, encodingLabel, encodingCombo, new Separator(), chunkLabel, chunkSizeCombo, kbLabel);
+        HBox optionsBar = new HBox(10, encodingLabel, encodingCombo, new Separator(), chunkLabel, chunkSizeCombo, kbLabel, autoChunkCheck);
         optionsBar.setPadding(new Insets(5, 10, 5, 10));
         optionsBar.setAlignment(Pos.CENTER_LEFT);
         optionsBar.setStyle("-fx-background-color: #F3E5F5;");
@@ -399,24 +506,318 @@ public class AdvancedLargeFileViewer extends Application {
         }
     }
 
+    private void showFolderSearch(Stage stage) {
+        if (folderSearchWindow == null) {
+            folderSearchWindow = new FolderSearchWindow(stage, this::openFileAtOffset);
+        }
+        folderSearchWindow.show();
+    }
+
+    private void openFileAtOffset(Path file, long offset, int length) {
+        pendingSelectionOffset = offset;
+        pendingSelectionLength = length;
+        // Un peu de contexte avant l'occurrence pour qu'elle ne soit pas collée en haut
+        openFileAsync(file.toFile(), Math.max(0, offset - SELECTION_CONTEXT_BYTES));
+    }
+
     private void openFileAsync(File file) {
+        pendingSelectionOffset = -1;
+        openFileAsync(file, 0);
+    }
+
+    private void openFileAsync(File file, long position) {
+        Path path = file.toPath();
+        if (Files.exists(path) && !Files.isRegularFile(path)) {
+            // Tube nommé, périphérique... : pas de lecture positionnelle possible.
+            // Ouvert par le thread d'ingestion : open(2) sur un tube bloque jusqu'à l'arrivée d'un écrivain
+            openStreamAsync(() -> FileChannel.open(path, StandardOpenOption.READ), file.getName());
+            return;
+        }
+
         closeFileChannel();
         try {
-            fileChannel = AsynchronousFileChannel.open(file.toPath(), StandardOpenOption.READ);
-            fileSize = fileChannel.size();
+            FileChunkSource opened = new FileChunkSource(path);
+            source = opened;
+            fileSize = source.size();
             currentPosition = 0;
             String sizeInfo = formatFileSize(fileSize);
-            fileInfoLabel.setText("📄 " + file.getName() + " (" + sizeInfo + ") - Mode économie mémoire");
-            loadChunkAtPosition(0);
+            fileInfoLabel.setText("📄 " + file.getName() + " (" + sizeInfo + ") - Analyse...");
+            textArea.clear();
+            progressBar.setVisible(true);
+            progressBar.setProgress(ProgressBar.INDETERMINATE_PROGRESS);
+
+            // Profil par échantillonnage (borné à quelques centaines de ms), puis premier chunk
+            // décodé directement avec le bon encodage et le bon mode d'affichage
+            scheduler.submit(TaskScheduler.Lane.PREFETCH, () -> {
+                FileProfiler.Profile profile = null;
+                try {
+                    profile = FileProfiler.profile(opened);
+                } catch (IOException e) {
+                    // Profil indisponible : ouverture avec les réglages courants
+                }
+                FileProfiler.Profile result = profile;
+                Platform.runLater(() -> {
+                    if (source != opened) return;
+                    if (result != null) applyProfile(file.getName(), result);
+                    loadChunkAtPosition(position);
+                });
+            });
+        } catch (RejectedExecutionException e) {
+            loadChunkAtPosition(position);
         } catch (IOException e) {
             showError("Erreur lors de l'ouverture du fichier: " + e.getMessage());
         }
     }
 
+    private void applyProfile(String name, FileProfiler.Profile profile) {
+        fileProfile = profile;
+        currentCharset = profile.charset();
+        if (encodingCombo != null) {
+            updatingEncodingCombo = true;
+            encodingCombo.setValue(encodingName(currentCharset));
+            updatingEncodingCombo = false;
+        }
+
+        // Le retour à la ligne n'est qu'activé (jamais retiré) : c'est aussi une préférence de l'utilisateur
+        hexView = profile.viewMode() == FileProfiler.ViewMode.HEX;
+        hexViewItem.setSelected(hexView);
+        updateCenterView();
+        if (profile.viewMode() == FileProfiler.ViewMode.WRAPPED) {
+            textArea.setWrapText(true);
+            wrapTextItem.setSelected(true);
+        }
+
+        String content = profile.binary()
+                ? "binaire, vue hexadécimale"
+                : String.format("~%,d lignes, %s, moy. %.0f car./ligne, max ≥ %,d",
+                        profile.estimatedLines(), encodingName(profile.charset()),
+                        profile.averageLineLength(), profile.maxLineLength());
+        fileInfoLabel.setText("📄 " + name + " (" + formatFileSize(profile.size()) + ") - " + content);
+    }
+
+    private static String encodingName(Charset charset) {
+        return charset.name().equalsIgnoreCase("windows-1252") ? "Windows-1252" : charset.name();
+    }
+
+    private void openStreamAsync(StreamingSource.ChannelOpener opener, String name) {
+        closeFileChannel();
+        pendingSelectionOffset = -1;
+        try {
+            StreamingSource stream = new StreamingSource(opener, name);
+            source = stream;
+            fileSize = 0;
+            currentPosition = 0;
+            displayedBytes = 0;
+            awaitingFirstChunk = true;
+            textArea.clear();
+            fileInfoLabel.setText("📥 " + name + " - en attente de données...");
+
+            stream.start(new StreamingSource.Listener() {
+                @Override
+                public void onGrowth(long size) {
+                    Platform.runLater(() -> updateStreamSize(stream, size, false));
+                }
+
+                @Override
+                public void onEnd(long size) {
+                    Platform.runLater(() -> updateStreamSize(stream, size, true));
+                }
+
+                @Override
+                public void onError(String error) {
+                    Platform.runLater(() -> {
+                        if (source == stream) statusLabel.setText("⚠ Erreur de lecture du flux: " + error);
+                    });
+                }
+            });
+        } catch (IOException e) {
+            showError("Erreur lors de l'ouverture du flux: " + e.getMessage());
+        }
+    }
+
+    private void updateStreamSize(StreamingSource stream, long size, boolean ended) {
+        if (source != stream) return;
+        long previousSize = fileSize;
+        fileSize = size;
+        fileInfoLabel.setText("📥 " + stream.getName() + " (" + formatFileSize(size) + ")" +
+                (ended ? " - flux terminé" : " - réception en cours..."));
+
+        if (awaitingFirstChunk && size > 0) {
+            awaitingFirstChunk = false;
+            loadChunkAtPosition(0);
+        } else if (currentPosition + displayedBytes >= previousSize) {
+            // On regarde la fin du flux : le chunk est complété sans toucher au défilement ni à la sélection
+            appendStreamTail();
+        }
+    }
+
+    /**
+     * Lit les octets arrivés après la fin du chunk affiché, dans la limite de la taille de chunk,
+     * et les ajoute à la vue. Une seule lecture à la fois ; un nouveau chunk chargé entre-temps l'annule.
+     */
+    private void appendStreamTail() {
+        if (source == null || appendInFlight || shownSequence != loadSequence) return;
+        long end = Math.min(currentPosition + currentChunkSize, fileSize);
+        if (currentPosition + displayedBytes >= end) return;
+        // Vue hexadécimale : la dernière ligne incomplète est relue et réécrite
+        int keptBytes = hexView ? displayedBytes / 16 * 16 : displayedBytes;
+        long from = currentPosition + keptBytes;
+        int length = (int) (end - from);
+        int expectedBytes = displayedBytes;
+        int sequence = loadSequence;
+        ChunkSource channel = source;
+
+        appendInFlight = true;
+        try {
+            scheduler.submit(TaskScheduler.Lane.VISIBLE, () -> {
+                ByteBuffer buffer = memoryBudget.allocate(length, Math.min(length, ChunkGovernor.MIN_CHUNK_SIZE / 4), true);
+                if (buffer == null) {
+                    Platform.runLater(() -> appendInFlight = false);
+                    return;
+                }
+                byte[] data;
+                try {
+                    while (buffer.hasRemaining()) {
+                        if (channel.read(buffer, from + buffer.position()) < 0) break;
+                    }
+                    buffer.flip();
+                    data = new byte[buffer.remaining()];
+                    buffer.get(data);
+                } catch (IOException exc) {
+                    Platform.runLater(() -> {
+                        appendInFlight = false;
+                        if (sequence == loadSequence) statusLabel.setText("⚠ Erreur de lecture du flux: " + exc.getMessage());
+                    });
+                    return;
+                } finally {
+                    memoryBudget.release(buffer);
+                }
+                Platform.runLater(() -> {
+                    appendInFlight = false;
+                    if (sequence != loadSequence || displayedBytes != expectedBytes) {
+                        // Lecture périmée : repartir de ce qui est affiché maintenant
+                        appendStreamTail();
+                        return;
+                    }
+                    showAppendedTail(data, keptBytes);
+                });
+            });
+        } catch (RejectedExecutionException e) {
+            // File VISIBLE pleine : la prochaine croissance du flux relancera l'ajout
+            appendInFlight = false;
+        }
+    }
+
+    private void showAppendedTail(byte[] data, int keptBytes) {
+        int length = displayableLength(data);
+        if (keptBytes + length <= displayedBytes) return;
+        long decodedBytes = (long) (keptBytes + length - displayedBytes) * decodedBytesPerByte();
+        if (!memoryBudget.tryReserve(decodedBytes)) {
+            statusLabel.setText("⚠ Mémoire insuffisante pour compléter le chunk, passez au suivant");
+            return;
+        }
+        displayReservation += decodedBytes;
+        if (isLogViewShown()) {
+            logView.append(Arrays.copyOf(data, length));
+        } else if (hexView) {
+            replacePreservingView(keptBytes / 16 * HEX_ROW_CHARS, textArea.getLength(),
+                    formatHexDump(Arrays.copyOf(data, length), currentPosition + keptBytes));
+        } else {
+            replacePreservingView(textArea.getLength(), textArea.getLength(), new String(data, 0, length, tailCharset));
+        }
+        displayedBytes = keptBytes + length;
+        updateMemoryInfo();
+        // Des octets ont pu arriver pendant la lecture
+        appendStreamTail();
+    }
+
+    // Remplace la fin du texte sans ramener le curseur, la sélection ni le défilement au début
+    private void replacePreservingView(int start, int end, String text) {
+        double scrollTop = textArea.getScrollTop();
+        double scrollLeft = textArea.getScrollLeft();
+        int anchor = textArea.getAnchor();
+        int caret = textArea.getCaretPosition();
+        textArea.replaceText(start, end, text);
+        textArea.selectRange(Math.min(anchor, textArea.getLength()), Math.min(caret, textArea.getLength()));
+        textArea.setScrollTop(scrollTop);
+        textArea.setScrollLeft(scrollLeft);
+    }
+
+    /**
+     * Flux en cours affiché en texte : on s'arrête avant un caractère multi-octets incomplet,
+     * qui sera décodé entier au prochain ajout. La vue colorée garde elle-même la ligne incomplète.
+     */
+    private int displayableLength(byte[] data) {
+        if (hexView || isLogViewShown() || !source.isGrowing()) return data.length;
+        if (currentCharset == StandardCharsets.UTF_16 || currentCharset == StandardCharsets.UTF_16LE
+                || currentCharset == StandardCharsets.UTF_16BE) {
+            return data.length & ~1;
+        }
+        if (currentCharset != StandardCharsets.UTF_8) return data.length;
+        for (int i = data.length - 1; i >= Math.max(0, data.length - 3); i--) {
+            int b = data[i] & 0xFF;
+            if (b < 0x80) return data.length;
+            if (b >= 0xC0) {
+                int sequenceLength = b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : 2;
+                return i + sequenceLength > data.length ? i : data.length;
+            }
+        }
+        return data.length;
+    }
+
+    private void setHighlighting(boolean enable) {
+        highlighting = enable;
+        if (enable && logView == null) {
+            logView = new HighlightedLogView();
+            logView.setDarkMode(isDarkMode);
+        }
+        updateCenterView();
+        if (source != null) loadChunkAtPosition(currentPosition);
+    }
+
+    private boolean isLogViewShown() {
+        return highlighting && !hexView;
+    }
+
+    private void updateCenterView() {
+        if (isLogViewShown()) {
+            textArea.clear();
+            rootPane.setCenter(logView);
+        } else {
+            if (logView != null) logView.getItems().clear();
+            rootPane.setCenter(textArea);
+        }
+    }
+
+    private void applyPendingSelection(byte[] data, long chunkPosition) {
+        if (pendingSelectionOffset < 0) return;
+        long relative = pendingSelectionOffset - chunkPosition;
+        pendingSelectionOffset = -1;
+        if (relative < 0 || relative + pendingSelectionLength > data.length) return;
+        if (isLogViewShown()) {
+            logView.selectOffset(chunkPosition + relative);
+            return;
+        }
+
+        // Convertir l'offset en octets en index de caractères dans le texte décodé
+        int start = new String(data, 0, (int) relative, currentCharset).length();
+        int end = start + new String(data, (int) relative, pendingSelectionLength, currentCharset).length();
+        textArea.selectRange(start, end);
+        textArea.requestFocus();
+    }
+
     private void loadChunkAtPosition(long position) {
-        if (fileChannel == null) return;
+        if (source == null) return;
+        if (source.isGrowing()) {
+            try { fileSize = source.size(); } catch (IOException e) { }
+        }
         if (position < 0) position = 0;
         if (position >= fileSize) position = Math.max(0, fileSize - currentChunkSize);
+        // UTF-16 : ne jamais commencer un chunk au milieu d'une unité de deux octets
+        if (currentCharset == StandardCharsets.UTF_16 || currentCharset == StandardCharsets.UTF_16LE
+                || currentCharset == StandardCharsets.UTF_16BE) {
+            position &= ~1L;
+        }
 
         final long finalPosition = position;
         currentPosition = finalPosition;
@@ -425,41 +826,177 @@ public class AdvancedLargeFileViewer extends Application {
         progressBar.setProgress(ProgressBar.INDETERMINATE_PROGRESS);
         statusLabel.setText("⏳ Chargement du chunk à la position " + formatFileSize(finalPosition) + "...");
         textArea.clear();
+        if (logView != null) logView.getItems().clear();
+        releaseDisplayReservation();
 
         int readSize = (int) Math.min(currentChunkSize, fileSize - finalPosition);
-        ByteBuffer buffer = ByteBuffer.allocate(readSize);
+        // Valeur attendue pendant la lecture, corrigée à l'affichage (lecture réduite par le budget)
+        displayedBytes = readSize;
+        ChunkSource channel = source;
+        // Seule la dernière lecture demandée est affichée ; les précédentes encore en file sont annulées
+        final int sequence = ++loadSequence;
+        if (currentRead != null) currentRead.cancel(false);
 
-        fileChannel.read(buffer, finalPosition, buffer, new CompletionHandler<Integer, ByteBuffer>() {
-            @Override
-            public void completed(Integer bytesRead, ByteBuffer attachment) {
-                attachment.flip();
-                byte[] data = new byte[attachment.remaining()];
-                attachment.get(data);
-                String content = new String(data, currentCharset);
+        try {
+            currentRead = scheduler.submit(TaskScheduler.Lane.VISIBLE, () -> {
+                // Buffer direct : évite la copie intermédiaire du canal. Réduit si le budget mémoire est serré.
+                ByteBuffer buffer = memoryBudget.allocate(readSize, Math.min(readSize, ChunkGovernor.MIN_CHUNK_SIZE / 4), true);
+                if (buffer == null) {
+                    Platform.runLater(() -> {
+                        progressBar.setVisible(false);
+                        statusLabel.setText("⚠ Mémoire insuffisante pour charger un chunk, réduisez la taille du chunk");
+                    });
+                    return;
+                }
+                boolean reduced = buffer.remaining() < readSize;
+                long readStart = System.nanoTime();
+                byte[] data;
+                try {
+                    while (buffer.hasRemaining()) {
+                        if (channel.read(buffer, finalPosition + buffer.position()) < 0) break;
+                    }
+                    buffer.flip();
+                    data = new byte[buffer.remaining()];
+                    buffer.get(data);
+                } catch (IOException exc) {
+                    Platform.runLater(() -> {
+                        if (sequence != loadSequence) return;
+                        showError("Erreur de lecture: " + exc.getMessage());
+                        progressBar.setVisible(false);
+                    });
+                    return;
+                } finally {
+                    memoryBudget.release(buffer);
+                }
+                long readNanos = System.nanoTime() - readStart;
 
                 Platform.runLater(() -> {
-                    textArea.setText(content);
-                    textArea.positionCaret(0);
+                    if (sequence != loadSequence) return;
+                    long renderStart = System.nanoTime();
+                    int shown = displayableLength(data);
+                    byte[] chunk = shown < data.length ? Arrays.copyOf(data, shown) : data;
+                    long decodedBytes = (long) chunk.length * decodedBytesPerByte();
+                    if (!memoryBudget.tryReserve(decodedBytes)) {
+                        showDisplayMemoryShortage();
+                        return;
+                    }
+                    displayReservation = decodedBytes;
+                    try {
+                        if (isLogViewShown()) {
+                            // Découpage en lignes seulement : les jetons sont calculés à l'affichage de chaque ligne
+                            logView.setChunk(chunk, finalPosition, currentCharset);
+                        } else {
+                            textArea.setText(hexView ? formatHexDump(chunk, finalPosition) : new String(chunk, currentCharset));
+                            textArea.positionCaret(0);
+                        }
+                    } catch (OutOfMemoryError e) {
+                        showDisplayMemoryShortage();
+                        return;
+                    }
+                    displayedBytes = chunk.length;
+                    shownSequence = sequence;
+                    tailCharset = resolvedCharset(chunk);
+                    if (!hexView) applyPendingSelection(chunk, finalPosition);
+                    // Le CSS et la mise en page du nouveau texte se font au pulse suivant : la mesure s'y termine
+                    pendingRenderStart = renderStart;
+                    pendingRenderBytes = chunk.length;
+                    pendingReadNanos = readNanos;
+                    Platform.requestNextPulse();
                     progressBar.setVisible(false);
                     double progress = (double) finalPosition / fileSize * 100;
-                    statusLabel.setText(String.format("✓ Position: %s / %s (%.1f%%) | %d bytes lus",
-                            formatFileSize(finalPosition), formatFileSize(fileSize), progress, bytesRead));
+                    statusLabel.setText(String.format("✓ Position: %s / %s (%.1f%%) | %d bytes lus%s",
+                            formatFileSize(finalPosition), formatFileSize(fileSize), progress, data.length,
+                            reduced ? " (réduit: mémoire)" : ""));
                     updateMemoryInfo();
+                    StartupMetrics.markFirstChunk();
+                    if (cdsTraining) Platform.exit();
+                    if (channel.isGrowing()) appendStreamTail();
                 });
-            }
+            });
+        } catch (RejectedExecutionException e) {
+            progressBar.setVisible(false);
+            statusLabel.setText("⚠ Trop de lectures en attente, réessayez");
+        }
+    }
 
-            @Override
-            public void failed(Throwable exc, ByteBuffer attachment) {
-                Platform.runLater(() -> {
-                    showError("Erreur de lecture: " + exc.getMessage());
-                    progressBar.setVisible(false);
-                });
+    // UTF-16 sans boutisme explicite : celui du BOM en tête du chunk, sinon gros-boutiste comme le décodeur
+    private Charset resolvedCharset(byte[] chunk) {
+        if (currentCharset != StandardCharsets.UTF_16) return currentCharset;
+        boolean littleEndian = chunk.length >= 2 && (chunk[0] & 0xFF) == 0xFF && (chunk[1] & 0xFF) == 0xFE;
+        return littleEndian ? StandardCharsets.UTF_16LE : StandardCharsets.UTF_16BE;
+    }
+
+    // Vue hexadécimale classique : offset, 16 octets, colonne ASCII
+    private static String formatHexDump(byte[] data, long offset) {
+        StringBuilder out = new StringBuilder((data.length / 16 + 1) * 78);
+        for (int line = 0; line < data.length; line += 16) {
+            String address = Long.toHexString(offset + line).toUpperCase();
+            out.append("0".repeat(Math.max(0, 10 - address.length()))).append(address).append("  ");
+            for (int i = 0; i < 16; i++) {
+                if (line + i < data.length) {
+                    int b = data[line + i] & 0xFF;
+                    out.append(HEX_DIGITS[b >> 4]).append(HEX_DIGITS[b & 0xF]).append(' ');
+                } else {
+                    out.append("   ");
+                }
+                if (i == 7) out.append(' ');
             }
-        });
+            out.append(" |");
+            for (int i = line; i < Math.min(line + 16, data.length); i++) {
+                int b = data[i] & 0xFF;
+                out.append(b >= 0x20 && b < 0x7F ? (char) b : '.');
+            }
+            out.append("|\n");
+        }
+        return out.toString();
+    }
+
+    // Dégradation : on vide la vue et on réduit la fenêtre plutôt que de planter
+    private void showDisplayMemoryShortage() {
+        textArea.clear();
+        if (logView != null) logView.getItems().clear();
+        releaseDisplayReservation();
+        progressBar.setVisible(false);
+        int reduced = Math.max(ChunkGovernor.MIN_CHUNK_SIZE, currentChunkSize / 2);
+        if (reduced < currentChunkSize) {
+            applyChunkSize(reduced);
+            loadChunkAtPosition(currentPosition);
+        }
+        statusLabel.setText("⚠ Mémoire insuffisante pour afficher ce chunk, taille réduite à " + formatFileSize(reduced));
+    }
+
+    private int recommendedChunkSize() {
+        return chunkGovernor.getRecommendedSize(decodedBytesPerByte());
+    }
+
+    // Octets de texte affiché par octet lu : String UTF-16 en texte, 78 caractères pour 16 octets en hexadécimal
+    private int decodedBytesPerByte() {
+        return hexView ? HEX_DUMP_BYTES_PER_BYTE : 2;
+    }
+
+    /**
+     * Après la mise en page de chaque pulse. Au premier, la frame est rendue à la fin du pulse :
+     * un runLater posté maintenant ne s'exécute qu'ensuite, fenêtre peinte.
+     * Termine aussi la mesure d'affichage du dernier chunk.
+     */
+    private void onLayoutPulse() {
+        if (afterFirstFrame != null) {
+            Platform.runLater(afterFirstFrame);
+            afterFirstFrame = null;
+        }
+        if (pendingRenderStart < 0) return;
+        chunkGovernor.record(pendingRenderBytes, pendingReadNanos, System.nanoTime() - pendingRenderStart);
+        pendingRenderStart = -1;
+        if (autoChunkSize) applyChunkSize(recommendedChunkSize());
+    }
+
+    private void releaseDisplayReservation() {
+        memoryBudget.release(displayReservation);
+        displayReservation = 0;
     }
 
     private void loadNextChunk() {
-        long nextPosition = currentPosition + currentChunkSize;
+        long nextPosition = currentPosition + (displayedBytes > 0 ? displayedBytes : currentChunkSize);
         if (nextPosition < fileSize) {
             loadChunkAtPosition(nextPosition);
         } else {
@@ -468,6 +1005,7 @@ public class AdvancedLargeFileViewer extends Application {
     }
 
     private void loadPreviousChunk() {
+        // Le chunk précédent se termine exactement là où commence le chunk courant
         long prevPosition = currentPosition - currentChunkSize;
         loadChunkAtPosition(prevPosition);
     }
@@ -491,6 +1029,12 @@ public class AdvancedLargeFileViewer extends Application {
             statusLabel.setText("⚠ Veuillez entrer un texte à rechercher");
             return;
         }
+        if (isLogViewShown()) {
+            logView.getSelectionModel().clearSelection();
+            int line = logView.find(searchText, true);
+            statusLabel.setText(line >= 0 ? "✓ Texte trouvé à la ligne " + (line + 1) : "✗ Texte non trouvé dans le chunk actuel");
+            return;
+        }
         String content = textArea.getText();
         int index = content.indexOf(searchText);
         if (index != -1) {
@@ -505,6 +1049,10 @@ public class AdvancedLargeFileViewer extends Application {
     private void goToNextSearchResult() {
         String searchText = searchField.getText();
         if (searchText.isEmpty()) return;
+        if (isLogViewShown()) {
+            if (logView.find(searchText, true) < 0) statusLabel.setText("✗ Aucune occurrence suivante dans ce chunk");
+            return;
+        }
         String content = textArea.getText();
         int currentPos = textArea.getSelection().getEnd();
         int index = content.indexOf(searchText, currentPos);
@@ -519,6 +1067,10 @@ public class AdvancedLargeFileViewer extends Application {
     private void goToPreviousSearchResult() {
         String searchText = searchField.getText();
         if (searchText.isEmpty()) return;
+        if (isLogViewShown()) {
+            if (logView.find(searchText, false) < 0) statusLabel.setText("✗ Aucune occurrence précédente dans ce chunk");
+            return;
+        }
         String content = textArea.getText();
         int currentPos = textArea.getSelection().getStart();
         int index = content.lastIndexOf(searchText, Math.max(0, currentPos - 1));
@@ -534,29 +1086,53 @@ public class AdvancedLargeFileViewer extends Application {
         searchField.clear();
         searchResults.clear();
         textArea.deselect();
+        if (logView != null) logView.getSelectionModel().clearSelection();
     }
 
     private void changeEncoding() {
+        if (updatingEncodingCombo) return;
         String encoding = encodingCombo.getValue();
+        if (logView != null) logView.clearCache();
         switch (encoding) {
             case "UTF-8": currentCharset = StandardCharsets.UTF_8; break;
             case "ISO-8859-1": currentCharset = StandardCharsets.ISO_8859_1; break;
             case "Windows-1252": currentCharset = Charset.forName("Windows-1252"); break;
             case "UTF-16": currentCharset = StandardCharsets.UTF_16; break;
+            case "UTF-16LE": currentCharset = StandardCharsets.UTF_16LE; break;
+            case "UTF-16BE": currentCharset = StandardCharsets.UTF_16BE; break;
         }
-        if (fileChannel != null) {
+        if (source != null) {
             loadChunkAtPosition(currentPosition);
         }
     }
 
     private void changeChunkSize() {
+        if (updatingChunkCombo) return;
+        // Un choix manuel désactive l'ajustement automatique
+        autoChunkSize = false;
+        autoChunkCheck.setSelected(false);
         currentChunkSize = chunkSizeCombo.getValue() * 1024;
         statusLabel.setText("✓ Taille du chunk changée à " + formatFileSize(currentChunkSize));
     }
 
+    private void applyChunkSize(int size) {
+        currentChunkSize = size;
+        if (chunkSizeCombo == null) return;
+        int kb = size / 1024;
+        updatingChunkCombo = true;
+        if (!chunkSizeCombo.getItems().contains(kb)) {
+            chunkSizeCombo.getItems().add(kb);
+            chunkSizeCombo.getItems().sort(null);
+        }
+        chunkSizeCombo.setValue(kb);
+        updatingChunkCombo = false;
+    }
+
     private void closeCurrentFile() {
         closeFileChannel();
         textArea.clear();
+        if (logView != null) logView.getItems().clear();
+        releaseDisplayReservation();
         fileInfoLabel.setText("Aucun fichier ouvert");
         statusLabel.setText("Prêt");
         currentPosition = 0;
@@ -564,8 +1140,15 @@ public class AdvancedLargeFileViewer extends Application {
     }
 
     private void closeFileChannel() {
-        if (fileChannel != null && fileChannel.isOpen()) {
-            try { fileChannel.close(); } catch (IOException e) { }
+        // Ignorer le résultat d'une lecture encore en cours sur l'ancien fichier
+        loadSequence++;
+        awaitingFirstChunk = false;
+        displayedBytes = 0;
+        fileProfile = null;
+        if (logView != null) logView.clearCache();
+        if (source != null) {
+            try { source.close(); } catch (IOException e) { }
+            source = null;
         }
     }
 
@@ -586,8 +1169,15 @@ public class AdvancedLargeFileViewer extends Application {
 
         String message = String.format(
                 "Mémoire utilisée: %d MB\nMémoire libre: %d MB\nMémoire totale: %d MB\nMémoire maximale: %d MB\n\n" +
+                        "Budget buffers/caches: %d MB / %d MB\nTaille de chunk: %s (%s)\nMesures: %s\n%s%s\n\n" +
                         "Cette application utilise un chargement par chunks pour\nminimiser l'utilisation de la mémoire, même pour des fichiers\nde plusieurs dizaines de gigaoctets.",
-                usedMemory, freeMemory, totalMemory, maxMemory
+                usedMemory, freeMemory, totalMemory, maxMemory,
+                memoryBudget.getReserved() / (1024 * 1024), memoryBudget.getBudget() / (1024 * 1024),
+                formatFileSize(currentChunkSize), autoChunkSize ? "auto" : "manuel",
+                chunkGovernor.describe(), StartupMetrics.describe(),
+                (fileProfile == null ? "" : String.format("\nProfil: %d échantillons en %d ms",
+                        fileProfile.samples(), fileProfile.elapsedMillis()))
+                        + (logView == null ? "" : "\nColoration: " + logView.describe())
         );
 
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
@@ -602,10 +1192,10 @@ public class AdvancedLargeFileViewer extends Application {
         alert.setTitle("À propos");
         alert.setHeaderText("Advanced Large File Viewer");
         alert.setContentText(
-                "Version " + AutoUpdater.getCurrentVersion() + "\n\n" +
-                        "Visualiseur de fichiers texte ultra-léger utilisant\nAsynchronousFileChannel pour une performance optimale.\n\n" +
+                "Version " + AutoUpdater.CURRENT_VERSION + "\n\n" +
+                        "Visualiseur de fichiers texte ultra-léger utilisant\ndes lectures planifiées sur threads virtuels pour une performance optimale.\n\n" +
                         "Caractéristiques:\n• Lecture asynchrone non-bloquante\n• Consommation mémoire minimale\n• Support de fichiers de plusieurs Go\n" +
-                        "• Recherche dans le chunk actuel\n• Multiples encodages\n• Navigation par chunks personnalisables\n• Mise à jour automatique depuis GitHub\n• Mode sombre/clair"
+                        "• Recherche dans le chunk actuel\n• Recherche parallèle dans un dossier\n• Lecture de l'entrée standard et des tubes nommés\n• Multiples encodages\n• Navigation par chunks adaptatifs ou personnalisables\n• Mise à jour automatique depuis GitHub\n• Mode sombre/clair"
         );
         alert.showAndWait();
     }
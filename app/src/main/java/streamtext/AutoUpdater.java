@@ -1,18 +1,17 @@
 package streamtext;
 
 import java.io.BufferedReader;
-import java.io.FileOutputStream;
-import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URL;
 import org.json.JSONArray;
 import org.json.JSONObject;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javafx.application.Platform;
 import javafx.scene.control.Alert;
@@ -21,10 +20,13 @@ import javafx.scene.control.ButtonType;
 public class AutoUpdater {
 
     private static final String GITHUB_REPO = "linuxcommandsexplain/StreamText";
-    private static final String CURRENT_VERSION = "1.1.5";
+    // Constante publique : lue sans charger cette classe (ni org.json) au démarrage
+    public static final String CURRENT_VERSION = "1.1.5";
     private static final String GITHUB_API_URL = "https://api.github.com/repos/" + GITHUB_REPO + "/releases/latest";
 
     private UpdateCallback callback;
+    // Somme SHA-256 annoncée par l'API pour chaque asset proposé (champ "digest"), par URL
+    private final Map<String, String> assetDigests = new ConcurrentHashMap<>();
 
     public interface UpdateCallback {
         void onUpdateAvailable(String version, String downloadUrl);
@@ -39,7 +41,7 @@ public class AutoUpdater {
     }
 
     public void checkForUpdates() {
-        new Thread(() -> {
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.HOUSEKEEPING, () -> {
             try {
                 URL url = new URI(GITHUB_API_URL).toURL();
                 HttpURLConnection conn = (HttpURLConnection) url.openConnection();
@@ -60,6 +62,12 @@ public class AutoUpdater {
                         JSONArray assets = json.getJSONArray("assets");
                         String downloadUrl = null;
 
+                        for (int i = 0; i < assets.length(); i++) {
+                            JSONObject asset = assets.getJSONObject(i);
+                            String digest = UpdateDownloader.assetDigest(asset.optString("digest", null));
+                            if (digest != null) assetDigests.put(asset.getString("browser_download_url"), digest);
+                        }
+
                         // Chercher le .deb
                         for (int i = 0; i < assets.length(); i++) {
                             String assetUrl = assets.getJSONObject(i).getString("browser_download_url");
@@ -83,41 +91,41 @@ public class AutoUpdater {
             } catch (Exception e) {
                 Platform.runLater(() -> callback.onError("Erreur: " + e.getMessage()));
             }
-        }).start();
+        });
     }
 
     public void downloadUpdate(String downloadUrl) {
-        new Thread(() -> {
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.HOUSEKEEPING, () -> {
             try {
-                URL url = new URI(downloadUrl).toURL();
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-                int fileSize = conn.getContentLength();
-
-                Path tempFile = Files.createTempFile("streamtext-update-", ".deb");
-
-                try (InputStream in = conn.getInputStream();
-                     FileOutputStream out = new FileOutputStream(tempFile.toFile())) {
-
-                    byte[] buffer = new byte[8192];
-                    int bytesRead;
-                    long totalBytesRead = 0;
-
-                    while ((bytesRead = in.read(buffer)) != -1) {
-                        out.write(buffer, 0, bytesRead);
-                        totalBytesRead += bytesRead;
-                        int progress = (int) ((totalBytesRead * 100) / fileSize);
-                        Platform.runLater(() -> callback.onDownloadProgress(progress));
-                    }
+                URI uri = new URI(downloadUrl);
+                String fileName = Paths.get(uri.getPath()).getFileName().toString();
+                UpdateDownloader downloader = new UpdateDownloader();
+
+                // Somme annoncée par l'API GitHub, sinon publiée à côté du paquet : "<paquet>.sha256" ou "SHA256SUMS"
+                String checksum = assetDigests.get(downloadUrl);
+                if (checksum == null) {
+                    checksum = downloader.fetchChecksum(new URI(downloadUrl + ".sha256"), fileName);
                 }
-                Platform.runLater(() -> callback.onDownloadComplete(tempFile));
+                if (checksum == null) {
+                    checksum = downloader.fetchChecksum(uri.resolve("SHA256SUMS"), fileName);
+                }
+
+                // Nom stable pour pouvoir reprendre un téléchargement interrompu, dans un répertoire privé
+                Path updateDir = UpdateDownloader.updateDirectory();
+                Path target = downloader.download(uri, updateDir.resolve(fileName), checksum, (downloaded, total) -> {
+                    if (total <= 0) return;
+                    int progress = (int) (downloaded * 100 / total);
+                    Platform.runLater(() -> callback.onDownloadProgress(progress));
+                });
+                Platform.runLater(() -> callback.onDownloadComplete(target));
             } catch (Exception e) {
                 Platform.runLater(() -> callback.onError("Erreur de téléchargement: " + e.getMessage()));
             }
-        }).start();
+        });
     }
 
     public void installUpdate(Path updateFile) {
-        new Thread(() -> {
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.HOUSEKEEPING, () -> {
             try {
                 // Lance l'installation en arrière-plan SANS fermer l'app immédiatement
                 ProcessBuilder pb = new ProcessBuilder("pkexec", "apt-get", "install", "-y", updateFile.toAbsolutePath().toString());
@@ -144,7 +152,7 @@ public class AutoUpdater {
             } catch (Exception e) {
                 Platform.runLater(() -> callback.onError("Erreur d'installation: " + e.getMessage()));
             }
-        }).start();
+        });
     }
 
     private boolean isNewerVersion(String latest, String current) {
@@ -0,0 +1,78 @@
+package streamtext;
+
+/**
+ * Ajuste la taille des chunks en fonction des temps mesurés de lecture et d'affichage.
+ * Un disque lent ou un TextArea qui peine à afficher réduisent la fenêtre, un SSD rapide
+ * l'agrandit, le tout plafonné par le budget mémoire partagé.
+ * Le temps d'affichage va jusqu'à la fin de la mise en page (CSS et layout du pulse suivant) :
+ * le TextArea met en page tout son texte, son coût suit donc la taille du chunk et la largeur
+ * de la fenêtre plutôt que le nombre de lignes visibles.
+ */
+public class ChunkGovernor {
+
+    public static final int MIN_CHUNK_SIZE = 256 * 1024;
+    public static final int MAX_CHUNK_SIZE = 8 * 1024 * 1024;
+
+    // Temps visés pour qu'un changement de chunk reste fluide
+    private static final double TARGET_READ_NANOS = 80_000_000;
+    private static final double TARGET_RENDER_NANOS = 120_000_000;
+    // Poids des nouvelles mesures dans la moyenne glissante
+    private static final double SMOOTHING = 0.3;
+    // Le texte décodé du chunk affiché peut occuper au plus un tiers du budget partagé
+    private static final int DISPLAY_BUDGET_SHARE = 3;
+
+    private final MemoryBudget memoryBudget;
+    private double readNanosPerByte = -1;
+    private double renderNanosPerByte = -1;
+    private int recommendedSize;
+
+    public ChunkGovernor(MemoryBudget memoryBudget, int initialSize) {
+        this.memoryBudget = memoryBudget;
+        this.recommendedSize = clamp(initialSize);
+    }
+
+    /**
+     * Enregistre les mesures d'un chunk et recalcule la taille recommandée.
+     */
+    public synchronized void record(int bytes, long readNanos, long renderNanos) {
+        if (bytes <= 0) return;
+        readNanosPerByte = smooth(readNanosPerByte, (double) readNanos / bytes);
+        renderNanosPerByte = smooth(renderNanosPerByte, (double) renderNanos / bytes);
+
+        double byRead = TARGET_READ_NANOS / Math.max(readNanosPerByte, 1e-3);
+        double byRender = TARGET_RENDER_NANOS / Math.max(renderNanosPerByte, 1e-3);
+        recommendedSize = clamp((long) Math.min(byRead, byRender));
+    }
+
+    /**
+     * Taille recommandée, plafonnée par {@link #getMaxChunkSize(int)}.
+     * {@code decodedBytesPerByte} : octets de texte affiché par octet lu (2 en texte, 10 en hexadécimal).
+     */
+    public synchronized int getRecommendedSize(int decodedBytesPerByte) {
+        return Math.min(recommendedSize, getMaxChunkSize(decodedBytesPerByte));
+    }
+
+    /**
+     * Plus grande taille de chunk dont le texte décodé tient dans la part du budget mémoire réservée à l'affichage.
+     */
+    public int getMaxChunkSize(int decodedBytesPerByte) {
+        long allowed = memoryBudget.getBudget() / DISPLAY_BUDGET_SHARE / decodedBytesPerByte;
+        return Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, Integer.highestOneBit((int) Math.min(allowed, Integer.MAX_VALUE))));
+    }
+
+    public synchronized String describe() {
+        if (readNanosPerByte < 0) return "pas encore de mesure";
+        return String.format("lecture %.0f MB/s, affichage %.0f MB/s",
+                1000.0 / Math.max(readNanosPerByte, 1e-3), 1000.0 / Math.max(renderNanosPerByte, 1e-3));
+    }
+
+    private static double smooth(double previous, double sample) {
+        return previous < 0 ? sample : previous + SMOOTHING * (sample - previous);
+    }
+
+    // Arrondi à la puissance de deux inférieure pour éviter d'osciller entre deux tailles proches
+    private static int clamp(long size) {
+        long bounded = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, size));
+        return Integer.highestOneBit((int) bounded);
+    }
+}
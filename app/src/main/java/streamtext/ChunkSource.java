@@ -0,0 +1,25 @@
+package streamtext;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Données affichées par la visionneuse : un fichier classique ou un flux (stdin, tube nommé)
+ * dont la taille grandit pendant la lecture.
+ */
+public interface ChunkSource extends Closeable {
+
+    String getName();
+
+    /** Nombre d'octets actuellement disponibles. */
+    long size() throws IOException;
+
+    /** Lecture positionnelle, comme {@link java.nio.channels.FileChannel#read(ByteBuffer, long)}. */
+    int read(ByteBuffer dst, long position) throws IOException;
+
+    /** Vrai tant que de nouvelles données peuvent encore arriver. */
+    default boolean isGrowing() {
+        return false;
+    }
+}
@@ -0,0 +1,41 @@
+package streamtext;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Fichier classique : lectures positionnelles directes, sûres depuis plusieurs threads.
+ */
+public class FileChunkSource implements ChunkSource {
+
+    private final FileChannel channel;
+    private final String name;
+
+    public FileChunkSource(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.name = path.getFileName().toString();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) throws IOException {
+        return channel.read(dst, position);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,241 @@
+package streamtext;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Profil rapide d'un fichier à l'ouverture, à partir de quelques dizaines de blocs lus
+ * en parallèle à des positions aléatoires : nombre de lignes estimé, longueur moyenne et
+ * maximale des lignes, encodage probable (BOM puis distribution des octets) et détection
+ * texte / binaire. Le résultat sert à choisir l'encodage et le mode d'affichage avant le
+ * décodage du premier chunk.
+ */
+public class FileProfiler {
+
+    public enum ViewMode { TEXT, WRAPPED, HEX }
+
+    public record Profile(long size, long estimatedLines, double averageLineLength, int maxLineLength,
+                          Charset charset, boolean binary, ViewMode viewMode, int samples, long elapsedMillis) {}
+
+    // Un bloc lu et sa position dans le fichier (la parité compte pour l'UTF-16)
+    record Sample(long position, byte[] data) {}
+
+    private static final int SAMPLE_COUNT = 32;
+    private static final int BLOCK_SIZE = 64 * 1024;
+    private static final int READERS = 3;
+    private static final long DEADLINE_MILLIS = 500;
+    private static final int WRAP_AVERAGE_LINE = 500;
+    private static final int WRAP_MAX_LINE = 8192;
+    private static final Charset WINDOWS_1252 = Charset.forName("Windows-1252");
+
+    private FileProfiler() {
+    }
+
+    /**
+     * Lit les échantillons dans la voie VISIBLE du planificateur puis les analyse.
+     * Les blocs non lus à l'échéance sont ignorés : le profil reste une estimation.
+     */
+    public static Profile profile(ChunkSource source) throws IOException {
+        long start = System.nanoTime();
+        long size = source.size();
+        List<Long> positions = samplePositions(size);
+        List<Sample> samples = Collections.synchronizedList(new ArrayList<>());
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(DEADLINE_MILLIS);
+
+        List<Future<?>> readers = new ArrayList<>();
+        try {
+            for (int r = 0; r < READERS; r++) {
+                int first = r;
+                readers.add(TaskScheduler.getInstance().submit(TaskScheduler.Lane.VISIBLE, () -> {
+                    for (int i = first; i < positions.size() && System.nanoTime() < deadline; i += READERS) {
+                        samples.add(readSample(source, positions.get(i), size));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> reader : readers) {
+                reader.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+        } catch (RejectedExecutionException e) {
+            // File pleine : lecture du début seulement, sur ce thread
+            if (samples.isEmpty()) samples.add(readSample(source, 0, size));
+        } catch (TimeoutException e) {
+            // Disque lent : on analyse ce qui a déjà été lu
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Pas d'interruption : elle fermerait le FileChannel partagé
+            readers.forEach(reader -> reader.cancel(false));
+        }
+
+        List<Sample> collected;
+        synchronized (samples) {
+            collected = new ArrayList<>(samples);
+        }
+        return analyze(size, collected, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Le début du fichier, la fin, et un bloc au hasard dans chaque tranche intermédiaire
+    static List<Long> samplePositions(long size) {
+        List<Long> positions = new ArrayList<>();
+        if (size <= (long) SAMPLE_COUNT * BLOCK_SIZE) {
+            for (long position = 0; position < size; position += BLOCK_SIZE) positions.add(position);
+            return positions;
+        }
+        Random random = new Random(size);
+        long stride = size / SAMPLE_COUNT;
+        positions.add(0L);
+        for (int i = 1; i < SAMPLE_COUNT - 1; i++) {
+            positions.add(i * stride + (long) (random.nextDouble() * (stride - BLOCK_SIZE)));
+        }
+        positions.add(size - BLOCK_SIZE);
+        return positions;
+    }
+
+    private static Sample readSample(ChunkSource source, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(BLOCK_SIZE, size - position));
+        while (buffer.hasRemaining()) {
+            if (source.read(buffer, position + buffer.position()) < 0) break;
+        }
+        return new Sample(position, Arrays.copyOf(buffer.array(), buffer.position()));
+    }
+
+    static Profile analyze(long size, List<Sample> samples, long elapsedMillis) {
+        samples.sort((a, b) -> Long.compare(a.position(), b.position()));
+        Sample head = samples.isEmpty() || samples.get(0).position() != 0 ? null : samples.get(0);
+
+        long total = 0, nul = 0, control = 0, high = 0, c1 = 0;
+        long zeroEven = 0, zeroOdd = 0, invalidUtf8 = 0;
+        for (Sample sample : samples) {
+            byte[] data = sample.data();
+            total += data.length;
+            for (int i = 0; i < data.length; i++) {
+                int b = data[i] & 0xFF;
+                if (b == 0) {
+                    nul++;
+                    if (((sample.position() + i) & 1) == 0) zeroEven++; else zeroOdd++;
+                } else if (b < 0x20 && b != '\n' && b != '\r' && b != '\t' && b != '\f' && b != 0x1B) {
+                    control++;
+                } else if (b >= 0x80) {
+                    high++;
+                    if (b <= 0x9F) c1++;
+                }
+            }
+            invalidUtf8 += countInvalidUtf8(data);
+        }
+
+        int bomLength = 0;
+        Charset charset;
+        byte[] start = head == null ? new byte[0] : head.data();
+        if (startsWith(start, 0xEF, 0xBB, 0xBF)) {
+            charset = StandardCharsets.UTF_8;
+            bomLength = 3;
+        } else if (startsWith(start, 0xFF, 0xFE)) {
+            charset = StandardCharsets.UTF_16LE;
+            bomLength = 2;
+        } else if (startsWith(start, 0xFE, 0xFF)) {
+            charset = StandardCharsets.UTF_16BE;
+            bomLength = 2;
+        } else if (total > 0 && zeroOdd > total / 5 && zeroEven < total / 100) {
+            // Texte latin en UTF-16 : un octet nul sur deux, toujours du même côté
+            charset = StandardCharsets.UTF_16LE;
+        } else if (total > 0 && zeroEven > total / 5 && zeroOdd < total / 100) {
+            charset = StandardCharsets.UTF_16BE;
+        } else if (validUtf8(high, invalidUtf8)) {
+            charset = StandardCharsets.UTF_8;
+        } else {
+            // 0x80-0x9F sont des caractères imprimables en Windows-1252, des contrôles en ISO-8859-1
+            charset = c1 > 0 ? WINDOWS_1252 : StandardCharsets.ISO_8859_1;
+        }
+
+        boolean utf16 = charset == StandardCharsets.UTF_16LE || charset == StandardCharsets.UTF_16BE;
+        // Des données aléatoires ou compressées n'ont que ~10 % d'octets de contrôle : seuil trop proche.
+        // Hors UTF-16, un seul octet nul suffit (comme grep ou git) ; sinon quelques contrôles
+        // dans un flux qui n'est pas de l'UTF-8 valide.
+        boolean binary = total > 0 && (utf16
+                ? control * 10 > total
+                : nul > 0 || control * 20 > total || (!validUtf8(high, invalidUtf8) && control * 100 > total));
+
+        // Lignes : densité des sauts de ligne dans les échantillons, extrapolée à tout le fichier
+        int unit = utf16 ? 2 : 1;
+        boolean bigEndian = charset == StandardCharsets.UTF_16BE;
+        int lowByte = bigEndian ? 1 : 0;
+        long newlines = 0;
+        int maxLine = 0;
+        for (Sample sample : samples) {
+            byte[] data = sample.data();
+            int lineStart = 0;
+            for (int i = 0; i + unit <= data.length; i++) {
+                boolean aligned = ((sample.position() + i) % unit) == lowByte;
+                boolean highByteZero = unit == 1 || (bigEndian ? i > 0 && data[i - 1] == 0 : data[i + 1] == 0);
+                if (data[i] == '\n' && aligned && highByteZero) {
+                    newlines++;
+                    maxLine = Math.max(maxLine, (i - lineStart) / unit);
+                    lineStart = i + 1;
+                }
+            }
+            // Une ligne coupée par les bords du bloc compte comme minorant
+            maxLine = Math.max(maxLine, (data.length - lineStart) / unit);
+        }
+        long payload = Math.max(0, total - bomLength);
+        double averageLine = newlines == 0 ? (double) size / unit : (double) payload / unit / newlines;
+        long estimatedLines = total == 0 ? 0
+                : newlines == 0 ? 1 : Math.max(newlines, Math.round((double) newlines * size / total));
+
+        ViewMode mode = binary ? ViewMode.HEX
+                : averageLine > WRAP_AVERAGE_LINE || maxLine >= WRAP_MAX_LINE ? ViewMode.WRAPPED
+                : ViewMode.TEXT;
+        return new Profile(size, estimatedLines, averageLine, maxLine, binary ? StandardCharsets.ISO_8859_1 : charset,
+                binary, mode, samples.size(), elapsedMillis);
+    }
+
+    // Moins d'une séquence invalide pour cent octets hauts : de l'UTF-8, quelques octets corrompus près
+    private static boolean validUtf8(long high, long invalidUtf8) {
+        return high == 0 || invalidUtf8 * 100 <= high;
+    }
+
+    // Séquences UTF-8 invalides, en ignorant une séquence coupée au début ou à la fin du bloc
+    private static long countInvalidUtf8(byte[] data) {
+        long invalid = 0;
+        int i = 0;
+        while (i < data.length && (data[i] & 0xC0) == 0x80) i++;
+        while (i < data.length) {
+            int b = data[i] & 0xFF;
+            int length = b < 0x80 ? 1 : (b & 0xE0) == 0xC0 ? 2 : (b & 0xF0) == 0xE0 ? 3 : (b & 0xF8) == 0xF0 ? 4 : 0;
+            if (length == 0 || (length == 2 && b < 0xC2)) {
+                invalid++;
+                i++;
+                continue;
+            }
+            if (i + length > data.length) break;
+            int j = 1;
+            while (j < length && (data[i + j] & 0xC0) == 0x80) j++;
+            if (j < length) invalid++;
+            i += j;
+        }
+        return invalid;
+    }
+
+    private static boolean startsWith(byte[] data, int... prefix) {
+        if (data.length < prefix.length) return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if ((data[i] & 0xFF) != prefix[i]) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,254 @@
+package streamtext;
+
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.layout.*;
+import javafx.stage.DirectoryChooser;
+import javafx.stage.Stage;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fenêtre "Rechercher dans un dossier" : résultats groupés par fichier,
+ * un clic sur une occurrence ouvre le fichier à l'offset exact.
+ */
+public class FolderSearchWindow {
+
+    public interface HitOpener {
+        void open(Path file, long offset, int length);
+    }
+
+    // Noeud de l'arbre : un fichier (offset = -1) ou une occurrence
+    private record Hit(Path file, long offset, String preview) {}
+
+    private final Stage stage;
+    private final HitOpener opener;
+    private Charset charset;
+
+    private TextField folderField;
+    private TextField includeField;
+    private TextField excludeField;
+    private TextField textField;
+    // Encodage propre à la recherche : celui du fichier ouvert (détecté) n'a rien à voir avec les logs du dossier
+    private ComboBox<String> encodingCombo;
+    private Button searchButton;
+    private Button cancelButton;
+    private Label statusLabel;
+    private TreeView<Hit> resultsTree;
+    private TreeItem<Hit> resultsRoot;
+    private final Map<Path, TreeItem<Hit>> fileNodes = new HashMap<>();
+
+    private FolderSearcher searcher;
+    // Incrémenté à chaque recherche : les résultats en retard d'une recherche précédente sont ignorés
+    private int searchGeneration = 0;
+    private String currentText = "";
+
+    public FolderSearchWindow(Stage owner, HitOpener opener) {
+        this.opener = opener;
+
+        stage = new Stage();
+        stage.initOwner(owner);
+        stage.setTitle("Rechercher dans un dossier");
+        stage.setScene(new Scene(createContent(), 900, 600));
+        stage.setOnHidden(e -> cancelSearch());
+    }
+
+    public void show() {
+        stage.show();
+        stage.toFront();
+    }
+
+    private BorderPane createContent() {
+        folderField = new TextField();
+        folderField.setPromptText("Dossier à parcourir");
+        HBox.setHgrow(folderField, Priority.ALWAYS);
+        Button browseButton = new Button("📁 Parcourir...");
+        browseButton.setOnAction(e -> chooseFolder());
+
+        includeField = new TextField("*.log, *.log.*, *.txt");
+        includeField.setPrefWidth(250);
+        excludeField = new TextField("*.gz, *.zip");
+        excludeField.setPrefWidth(200);
+
+        textField = new TextField();
+        textField.setPromptText("Entrez un texte à rechercher...");
+        textField.setOnAction(e -> startSearch());
+        HBox.setHgrow(textField, Priority.ALWAYS);
+
+        encodingCombo = new ComboBox<>();
+        encodingCombo.getItems().addAll("UTF-8", "ISO-8859-1", "Windows-1252", "UTF-16LE", "UTF-16BE");
+        encodingCombo.setValue("UTF-8");
+
+        searchButton = new Button("🔍 Rechercher");
+        searchButton.setOnAction(e -> startSearch());
+        cancelButton = new Button("✖ Annuler");
+        cancelButton.setDisable(true);
+        cancelButton.setOnAction(e -> cancelSearch());
+
+        HBox folderBar = new HBox(10, new Label("Dossier:"), folderField, browseButton);
+        folderBar.setAlignment(Pos.CENTER_LEFT);
+        HBox filterBar = new HBox(10, new Label("Inclure:"), includeField, new Label("Exclure:"), excludeField);
+        filterBar.setAlignment(Pos.CENTER_LEFT);
+        HBox textBar = new HBox(10, new Label("Texte:"), textField, new Label("Encodage:"), encodingCombo,
+                searchButton, cancelButton);
+        textBar.setAlignment(Pos.CENTER_LEFT);
+
+        VBox top = new VBox(5, folderBar, filterBar, textBar);
+        top.setPadding(new Insets(10));
+        top.setStyle("-fx-background-color: #FFF9C4;");
+
+        resultsRoot = new TreeItem<>();
+        resultsTree = new TreeView<>(resultsRoot);
+        resultsTree.setShowRoot(false);
+        resultsTree.setCellFactory(tv -> new TreeCell<>() {
+            @Override
+            protected void updateItem(Hit hit, boolean empty) {
+                super.updateItem(hit, empty);
+                if (empty || hit == null) {
+                    setText(null);
+                } else if (hit.offset() < 0) {
+                    setText("📄 " + hit.file() + "  (" + getTreeItem().getChildren().size() + ")");
+                } else {
+                    setText(hit.offset() + ": " + hit.preview());
+                }
+            }
+        });
+        resultsTree.setOnMouseClicked(e -> openSelectedHit());
+
+        statusLabel = new Label("Prêt");
+        HBox bottom = new HBox(statusLabel);
+        bottom.setPadding(new Insets(5, 10, 5, 10));
+
+        BorderPane root = new BorderPane();
+        root.setTop(top);
+        root.setCenter(resultsTree);
+        root.setBottom(bottom);
+        return root;
+    }
+
+    private void chooseFolder() {
+        DirectoryChooser chooser = new DirectoryChooser();
+        chooser.setTitle("Choisir un dossier");
+        File dir = chooser.showDialog(stage);
+        if (dir != null) {
+            folderField.setText(dir.getAbsolutePath());
+        }
+    }
+
+    private void startSearch() {
+        cancelSearch();
+
+        String text = textField.getText();
+        File dir = new File(folderField.getText().trim());
+        if (text.isEmpty()) {
+            statusLabel.setText("⚠ Veuillez entrer un texte à rechercher");
+            return;
+        }
+        if (!dir.isDirectory()) {
+            statusLabel.setText("⚠ Dossier invalide");
+            return;
+        }
+
+        currentText = text;
+        charset = FolderSearcher.needleCharset(Charset.forName(encodingCombo.getValue()));
+        resultsRoot.getChildren().clear();
+        fileNodes.clear();
+        searchButton.setDisable(true);
+        cancelButton.setDisable(false);
+        statusLabel.setText("⏳ Recherche en cours...");
+
+        FolderSearcher.SearchCallback callback = new FolderSearcher.SearchCallback() {
+            @Override
+            public void onFileMatches(Path file, List<FolderSearcher.Match> matches) {
+                TreeItem<Hit> fileNode = fileNodes.computeIfAbsent(file, f -> {
+                    TreeItem<Hit> node = new TreeItem<>(new Hit(f, -1, null));
+                    resultsRoot.getChildren().add(node);
+                    return node;
+                });
+                for (FolderSearcher.Match match : matches) {
+                    fileNode.getChildren().add(new TreeItem<>(new Hit(file, match.offset(), match.preview())));
+                }
+            }
+
+            @Override
+            public void onProgress(int filesSearched, int filesFound) {
+                statusLabel.setText(String.format("⏳ %d / %d fichiers parcourus | %d fichiers avec résultats",
+                        filesSearched, filesFound, fileNodes.size()));
+            }
+
+            @Override
+            public void onComplete(int filesSearched, long totalMatches, boolean truncated) {
+                searcher = null;
+                searchButton.setDisable(false);
+                cancelButton.setDisable(true);
+                statusLabel.setText(String.format("✓ %d occurrence(s) dans %d fichier(s) sur %d parcourus%s",
+                        totalMatches, fileNodes.size(), filesSearched,
+                        truncated ? " (résultats limités)" : ""));
+            }
+
+            @Override
+            public void onError(Path file, String error) {
+                statusLabel.setText("⚠ " + file.getFileName() + ": " + error);
+            }
+        };
+        searcher = new FolderSearcher(dir.toPath(), includeField.getText(), excludeField.getText(),
+                text, charset, onFxThread(callback, ++searchGeneration));
+        searcher.start();
+    }
+
+    // Les callbacks arrivent des threads de fond ; ceux d'une recherche annulée ou remplacée sont ignorés
+    private FolderSearcher.SearchCallback onFxThread(FolderSearcher.SearchCallback target, int generation) {
+        return new FolderSearcher.SearchCallback() {
+            @Override
+            public void onFileMatches(Path file, List<FolderSearcher.Match> matches) {
+                deliver(() -> target.onFileMatches(file, matches));
+            }
+
+            @Override
+            public void onProgress(int filesSearched, int filesFound) {
+                deliver(() -> target.onProgress(filesSearched, filesFound));
+            }
+
+            @Override
+            public void onComplete(int filesSearched, long totalMatches, boolean truncated) {
+                deliver(() -> target.onComplete(filesSearched, totalMatches, truncated));
+            }
+
+            @Override
+            public void onError(Path file, String error) {
+                deliver(() -> target.onError(file, error));
+            }
+
+            private void deliver(Runnable action) {
+                Platform.runLater(() -> {
+                    if (searcher != null && generation == searchGeneration) action.run();
+                });
+            }
+        };
+    }
+
+    private void cancelSearch() {
+        if (searcher != null) {
+            searcher.cancel();
+            searcher = null;
+            searchButton.setDisable(false);
+            cancelButton.setDisable(true);
+            statusLabel.setText("✖ Recherche annulée");
+        }
+    }
+
+    private void openSelectedHit() {
+        TreeItem<Hit> item = resultsTree.getSelectionModel().getSelectedItem();
+        if (item == null || item.getValue() == null || item.getValue().offset() < 0) return;
+        Hit hit = item.getValue();
+        opener.open(hit.file(), hit.offset(), currentText.getBytes(charset).length);
+    }
+}
@@ -0,0 +1,311 @@
+package streamtext;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recherche d'un texte dans tous les fichiers d'un dossier (logs rotatés, etc.).
+ * Les fichiers sont parcourus en parallèle dans la voie d'indexation du {@link TaskScheduler}, les lectures
+ * disque sont limitées par un sémaphore et les buffers sont pris dans le {@link MemoryBudget} :
+ * la mémoire consommée ne dépend ni du nombre ni de la taille des fichiers.
+ * Le callback est appelé depuis les threads de fond : à l'appelant de repasser sur le thread FX.
+ */
+public class FolderSearcher {
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final int MIN_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_CONCURRENT_READS = 4;
+    static final int MAX_MATCHES_PER_FILE = 500;
+    static final int MAX_TOTAL_MATCHES = 10_000;
+    private static final int BATCH_SIZE = 100;
+    private static final int PREVIEW_BYTES = 120;
+
+    public record Match(long offset, String preview) {}
+
+    public interface SearchCallback {
+        void onFileMatches(Path file, List<Match> matches);
+        void onProgress(int filesSearched, int filesFound);
+        void onComplete(int filesSearched, long totalMatches, boolean truncated);
+        void onError(Path file, String error);
+    }
+
+    private final Path root;
+    private final List<PathMatcher> includes;
+    private final List<PathMatcher> excludes;
+    private final byte[] needle;
+    private final Charset charset;
+    // Taille d'une unité de code : 2 en UTF-16, où une occurrence ne peut commencer qu'à un offset pair
+    private final int unit;
+    private final boolean bigEndian;
+    private final SearchCallback callback;
+
+    private final TaskScheduler scheduler = TaskScheduler.getInstance();
+    private final Semaphore ioPermits = new Semaphore(MAX_CONCURRENT_READS);
+    // Fichiers en cours ou en attente, plus le parcours lui-même
+    private final AtomicInteger outstanding = new AtomicInteger(1);
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+    private final AtomicBoolean limitReached = new AtomicBoolean(false);
+    private final AtomicBoolean truncated = new AtomicBoolean(false);
+    private final AtomicInteger filesFound = new AtomicInteger();
+    private final AtomicInteger filesSearched = new AtomicInteger();
+    private final AtomicLong totalMatches = new AtomicLong();
+
+    private Future<?> walkTask;
+
+    public FolderSearcher(Path root, String includeGlobs, String excludeGlobs,
+                          String text, Charset charset, SearchCallback callback) {
+        this.root = root;
+        this.includes = parseGlobs(includeGlobs);
+        this.excludes = parseGlobs(excludeGlobs);
+        this.charset = needleCharset(charset);
+        this.needle = text.getBytes(this.charset);
+        this.unit = this.charset.equals(StandardCharsets.UTF_16BE) || this.charset.equals(StandardCharsets.UTF_16LE) ? 2 : 1;
+        this.bigEndian = this.charset.equals(StandardCharsets.UTF_16BE);
+        this.callback = callback;
+    }
+
+    /**
+     * Charset sans BOM pour encoder le texte cherché : UTF-16 ajouterait FE FF en tête et rien ne correspondrait.
+     * Sans boutisme précisé, gros-boutiste comme le décodeur UTF-16.
+     */
+    public static Charset needleCharset(Charset charset) {
+        return charset.equals(StandardCharsets.UTF_16) ? StandardCharsets.UTF_16BE : charset;
+    }
+
+    public void start() {
+        try {
+            walkTask = scheduler.submit(TaskScheduler.Lane.INDEXING, () -> {
+                try {
+                    walk();
+                } catch (IOException e) {
+                    deliver(() -> callback.onError(root, e.getMessage()));
+                } finally {
+                    finishOne();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            deliver(() -> callback.onError(root, "trop de recherches en cours, réessayez"));
+            finishOne();
+        }
+    }
+
+    // La dernière tâche terminée (parcours ou fichier) signale la fin de la recherche
+    private void finishOne() {
+        if (outstanding.decrementAndGet() != 0) return;
+        int searched = filesSearched.get();
+        long matches = totalMatches.get();
+        boolean limited = truncated.get();
+        deliver(() -> callback.onComplete(searched, matches, limited));
+    }
+
+    /**
+     * Annule la recherche : plus aucun callback n'est lancé après cet appel.
+     */
+    public void cancel() {
+        cancelled.set(true);
+        if (walkTask != null) walkTask.cancel(true);
+    }
+
+    private boolean isStopped() {
+        return cancelled.get() || limitReached.get();
+    }
+
+    // Les résultats d'une recherche annulée ne doivent plus atteindre l'appelant
+    private void deliver(Runnable action) {
+        if (!cancelled.get()) action.run();
+    }
+
+    private void walk() throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (isStopped()) return FileVisitResult.TERMINATE;
+                if (!dir.equals(root) && isExcluded(dir)) return FileVisitResult.SKIP_SUBTREE;
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (isStopped()) return FileVisitResult.TERMINATE;
+                if (!attrs.isRegularFile() || !isIncluded(file) || isExcluded(file)) {
+                    return FileVisitResult.CONTINUE;
+                }
+                outstanding.incrementAndGet();
+                try {
+                    // Back-pressure : le parcours attend qu'une place se libère dans la file d'indexation
+                    scheduler.submitBlocking(TaskScheduler.Lane.INDEXING, () -> {
+                        try {
+                            searchFile(file);
+                        } finally {
+                            finishOne();
+                        }
+                    });
+                } catch (InterruptedException e) {
+                    outstanding.decrementAndGet();
+                    Thread.currentThread().interrupt();
+                    return FileVisitResult.TERMINATE;
+                } catch (RejectedExecutionException e) {
+                    outstanding.decrementAndGet();
+                    return FileVisitResult.TERMINATE;
+                }
+                filesFound.incrementAndGet();
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                deliver(() -> callback.onError(file, exc.getMessage()));
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void searchFile(Path file) {
+        if (isStopped() || needle.length == 0) return;
+
+        // Buffer sur le tas : la recherche parcourt directement le tableau
+        ByteBuffer buffer = MemoryBudget.getInstance().allocate(BUFFER_SIZE, Math.max(MIN_BUFFER_SIZE, needle.length * 2), false);
+        if (buffer == null) {
+            deliver(() -> callback.onError(file, "mémoire insuffisante, fichier ignoré"));
+            filesSearched.incrementAndGet();
+            return;
+        }
+
+        List<Match> batch = new ArrayList<>();
+        int fileMatches = 0;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            byte[] data = buffer.array();
+            int capacity = buffer.limit();
+            long base = 0;   // offset dans le fichier de data[0]
+            int filled = 0;  // octets conservés du tour précédent (chevauchement)
+
+            while (!isStopped()) {
+                buffer.limit(capacity).position(filled);
+                int read;
+                ioPermits.acquire();
+                try {
+                    read = channel.read(buffer);
+                } finally {
+                    ioPermits.release();
+                }
+                if (read <= 0) break;
+
+                int limit = filled + read;
+                int last = limit - needle.length;
+                for (int i = 0; i <= last; i++) {
+                    if (data[i] != needle[0] || !matchesAt(data, i) || (base + i) % unit != 0) continue;
+
+                    batch.add(new Match(base + i, preview(data, i, limit)));
+                    fileMatches++;
+                    if (totalMatches.incrementAndGet() >= MAX_TOTAL_MATCHES) {
+                        truncated.set(true);
+                        limitReached.set(true);
+                    }
+                    if (batch.size() >= BATCH_SIZE) {
+                        publish(file, batch);
+                        batch = new ArrayList<>();
+                    }
+                    if (fileMatches >= MAX_MATCHES_PER_FILE) {
+                        truncated.set(true);
+                        break;
+                    }
+                    if (isStopped()) break;
+                }
+                if (fileMatches >= MAX_MATCHES_PER_FILE) break;
+
+                // On garde la fin du buffer pour trouver les occurrences à cheval sur deux lectures
+                int keep = Math.min(needle.length - 1, limit);
+                System.arraycopy(data, limit - keep, data, 0, keep);
+                base += limit - keep;
+                filled = keep;
+            }
+        } catch (IOException e) {
+            deliver(() -> callback.onError(file, e.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            MemoryBudget.getInstance().release(buffer);
+        }
+
+        if (!batch.isEmpty()) publish(file, batch);
+        int searched = filesSearched.incrementAndGet();
+        int found = filesFound.get();
+        deliver(() -> callback.onProgress(searched, found));
+    }
+
+    private boolean matchesAt(byte[] data, int index) {
+        for (int j = 1; j < needle.length; j++) {
+            if (data[index + j] != needle[j]) return false;
+        }
+        return true;
+    }
+
+    // Ligne autour de l'occurrence, parcourue par unités de code pour ne jamais couper un caractère UTF-16
+    private String preview(byte[] data, int index, int limit) {
+        int start = index;
+        while (start >= unit && index - start < PREVIEW_BYTES / 2 && !isLineBreak(data, start - unit)) start -= unit;
+        int end = index + needle.length;
+        while (end + unit <= limit && end - start < PREVIEW_BYTES && !isLineBreak(data, end)) end += unit;
+        return new String(data, start, end - start, charset).strip();
+    }
+
+    private boolean isLineBreak(byte[] data, int i) {
+        byte low = unit == 1 ? data[i] : bigEndian ? data[i + 1] : data[i];
+        boolean ascii = unit == 1 || (bigEndian ? data[i] : data[i + 1]) == 0;
+        return ascii && (low == '\n' || low == '\r');
+    }
+
+    private void publish(Path file, List<Match> matches) {
+        deliver(() -> callback.onFileMatches(file, matches));
+    }
+
+    private boolean isIncluded(Path file) {
+        if (includes.isEmpty()) return true;
+        Path name = file.getFileName();
+        for (PathMatcher matcher : includes) {
+            if (matcher.matches(name)) return true;
+        }
+        return false;
+    }
+
+    private boolean isExcluded(Path path) {
+        Path name = path.getFileName();
+        Path relative = root.relativize(path);
+        for (PathMatcher matcher : excludes) {
+            if (matcher.matches(name) || matcher.matches(relative)) return true;
+        }
+        return false;
+    }
+
+    private static List<PathMatcher> parseGlobs(String globs) {
+        List<PathMatcher> matchers = new ArrayList<>();
+        if (globs == null) return matchers;
+        for (String glob : globs.split("[,;]")) {
+            String trimmed = glob.trim();
+            if (!trimmed.isEmpty()) {
+                matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + trimmed));
+            }
+        }
+        return matchers;
+    }
+}
@@ -0,0 +1,224 @@
+package streamtext;
+
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextFlow;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Affichage coloré d'un chunk de log : une ligne par cellule de ListView, donc seules les
+ * lignes visibles sont découpées en jetons et transformées en nœuds Text. Les jetons viennent
+ * du cache de {@link LogHighlighter}, indexé par l'offset de la ligne dans le fichier.
+ */
+public class HighlightedLogView extends ListView<HighlightedLogView.Line> {
+
+    // Une ligne du chunk et l'offset en octets de son début dans le fichier
+    public record Line(long offset, String text) {}
+
+    private static final int CACHE_LINES = 4096;
+
+    private static final Color LIGHT_PLAIN = Color.web("#212121");
+    private static final Color DARK_PLAIN = Color.web("#E0E0E0");
+    private static final Map<LogHighlighter.TokenType, Color> LIGHT = palette(
+            "#607D8B", "#C62828", "#E65100", "#2E7D32", "#757575", "#1565C0", "#AD1457", "#8D6E63", "#6A1B9A", "#00838F");
+    private static final Map<LogHighlighter.TokenType, Color> DARK = palette(
+            "#90A4AE", "#EF5350", "#FFA726", "#66BB6A", "#9E9E9E", "#64B5F6", "#F48FB1", "#BCAAA4", "#CE93D8", "#4DD0E1");
+
+    private final LogHighlighter highlighter = new LogHighlighter(CACHE_LINES, MemoryBudget.getInstance());
+    private Map<LogHighlighter.TokenType, Color> colors = LIGHT;
+    private Color plain = LIGHT_PLAIN;
+
+    // Découpage du chunk courant, conservé pour compléter la dernière ligne quand un flux grossit
+    private Charset lineCharset = StandardCharsets.UTF_8;
+    private int unit = 1;
+    private boolean bigEndian = false;
+    private byte[] partial = new byte[0];
+    private long partialOffset = 0;
+
+    public HighlightedLogView() {
+        setStyle("-fx-font-family: 'Consolas', 'Courier New', monospace; -fx-font-size: 11px;");
+        setCellFactory(list -> new LineCell());
+    }
+
+    // Couleurs dans l'ordre de TokenType
+    private static Map<LogHighlighter.TokenType, Color> palette(String... colors) {
+        Map<LogHighlighter.TokenType, Color> palette = new EnumMap<>(LogHighlighter.TokenType.class);
+        LogHighlighter.TokenType[] types = LogHighlighter.TokenType.values();
+        for (int i = 0; i < types.length; i++) {
+            palette.put(types[i], Color.web(colors[i]));
+        }
+        return palette;
+    }
+
+    public void setDarkMode(boolean dark) {
+        colors = dark ? DARK : LIGHT;
+        plain = dark ? DARK_PLAIN : LIGHT_PLAIN;
+        refresh();
+    }
+
+    /** Remplace le contenu par les lignes du chunk lu à {@code position}. */
+    public void setChunk(byte[] data, long position, Charset charset) {
+        int start = 0;
+        unit = 1;
+        bigEndian = false;
+        if (charset == StandardCharsets.UTF_16 || charset == StandardCharsets.UTF_16LE || charset == StandardCharsets.UTF_16BE) {
+            unit = 2;
+            bigEndian = charset != StandardCharsets.UTF_16LE;
+            if (charset == StandardCharsets.UTF_16) {
+                // Comme le décodeur UTF-16 : BOM en tête du chunk, sinon gros-boutiste
+                boolean bom = data.length >= 2 && ((data[0] & 0xFF) == 0xFF && (data[1] & 0xFF) == 0xFE
+                        || (data[0] & 0xFF) == 0xFE && (data[1] & 0xFF) == 0xFF);
+                if (bom) {
+                    bigEndian = (data[0] & 0xFF) == 0xFE;
+                    start = 2;
+                }
+                charset = bigEndian ? StandardCharsets.UTF_16BE : StandardCharsets.UTF_16LE;
+            }
+        }
+        lineCharset = charset;
+
+        getItems().setAll(split(data, start, position));
+        scrollTo(0);
+    }
+
+    /**
+     * Ajoute les octets arrivés après la fin du chunk (flux qui grossit) : la dernière ligne,
+     * si elle était incomplète, est remplacée ; la position de défilement et la sélection sont conservées.
+     */
+    public void append(byte[] data) {
+        boolean hadPartial = partial.length > 0;
+        byte[] combined = new byte[partial.length + data.length];
+        System.arraycopy(partial, 0, combined, 0, partial.length);
+        System.arraycopy(data, 0, combined, partial.length, data.length);
+        List<Line> lines = split(combined, 0, partialOffset);
+
+        int selected = getSelectionModel().getSelectedIndex();
+        List<Line> items = getItems();
+        if (hadPartial && !items.isEmpty() && !lines.isEmpty()) {
+            items.set(items.size() - 1, lines.remove(0));
+        }
+        items.addAll(lines);
+        if (selected >= 0 && getSelectionModel().getSelectedIndex() != selected) {
+            getSelectionModel().select(selected);
+        }
+    }
+
+    // Lignes de data[start..] ; la fin sans saut de ligne est gardée de côté pour append()
+    private List<Line> split(byte[] data, int start, long position) {
+        List<Line> lines = new ArrayList<>();
+        int lineStart = start;
+        for (int i = start; i + unit <= data.length; i += unit) {
+            boolean newline = unit == 1 ? data[i] == '\n'
+                    : bigEndian ? data[i] == 0 && data[i + 1] == '\n' : data[i] == '\n' && data[i + 1] == 0;
+            if (newline) {
+                lines.add(line(data, lineStart, i, position, lineCharset));
+                lineStart = i + unit;
+            }
+        }
+        partial = Arrays.copyOfRange(data, lineStart, data.length);
+        partialOffset = position + lineStart;
+        if (partial.length > 0) lines.add(line(data, lineStart, data.length, position, lineCharset));
+        return lines;
+    }
+
+    private static Line line(byte[] data, int start, int end, long position, Charset charset) {
+        String text = new String(data, start, end - start, charset);
+        if (text.endsWith("\r")) text = text.substring(0, text.length() - 1);
+        if (text.startsWith("\uFEFF")) text = text.substring(1);
+        return new Line(position + start, text);
+    }
+
+    /** Sélectionne la ligne contenant l'octet {@code offset} du fichier. */
+    public void selectOffset(long offset) {
+        List<Line> lines = getItems();
+        int low = 0, high = lines.size() - 1, found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (lines.get(mid).offset() <= offset) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (found >= 0) showLine(found);
+    }
+
+    /**
+     * Ligne suivante (ou précédente) contenant {@code text} à partir de la sélection, ou -1.
+     * La ligne trouvée est sélectionnée et affichée.
+     */
+    public int find(String text, boolean forward) {
+        List<Line> lines = getItems();
+        int selected = getSelectionModel().getSelectedIndex();
+        int step = forward ? 1 : -1;
+        int index = selected < 0 ? (forward ? 0 : lines.size() - 1) : selected + step;
+        for (; index >= 0 && index < lines.size(); index += step) {
+            if (lines.get(index).text().contains(text)) {
+                showLine(index);
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private void showLine(int index) {
+        getSelectionModel().clearAndSelect(index);
+        scrollTo(Math.max(0, index - 5));
+        requestFocus();
+    }
+
+    /** Les offsets ne désignent plus les mêmes lignes : autre fichier ou autre encodage. */
+    public void clearCache() {
+        highlighter.clear();
+    }
+
+    public String describe() {
+        return highlighter.describe();
+    }
+
+    private class LineCell extends ListCell<Line> {
+
+        private final TextFlow flow = new TextFlow();
+
+        LineCell() {
+            setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+        }
+
+        @Override
+        protected void updateItem(Line line, boolean empty) {
+            super.updateItem(line, empty);
+            if (empty || line == null) {
+                setGraphic(null);
+                return;
+            }
+            String text = line.text();
+            List<Text> nodes = new ArrayList<>();
+            int position = 0;
+            for (LogHighlighter.Span span : highlighter.spans(line.offset(), text)) {
+                if (span.start() > position) nodes.add(text(text.substring(position, span.start()), plain));
+                nodes.add(text(text.substring(span.start(), span.end()), colors.get(span.type())));
+                position = span.end();
+            }
+            if (position < text.length()) nodes.add(text(text.substring(position), plain));
+            flow.getChildren().setAll(nodes);
+            setGraphic(flow);
+        }
+
+        private Text text(String value, Color color) {
+            Text node = new Text(value);
+            node.setFill(color);
+            return node;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package streamtext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Découpage en jetons des formats de logs courants : horodatage, niveau, logger,
+ * exceptions et lignes de pile, paires clé=valeur.
+ * Le découpage se fait ligne par ligne, à la demande (lignes visibles uniquement), et les
+ * résultats sont gardés dans un petit cache LRU indexé par l'offset en octets de la ligne :
+ * revenir sur une ligne déjà affichée ne coûte rien.
+ * Ne dépend pas de JavaFX.
+ */
+public class LogHighlighter {
+
+    public enum TokenType { TIMESTAMP, ERROR, WARN, INFO, DEBUG, LOGGER, EXCEPTION, STACK_FRAME, KEY, VALUE }
+
+    public record Span(int start, int end, TokenType type) {}
+
+    // La longueur sert à détecter une ligne qui a changé au même offset (fin d'un flux qui grossit).
+    // cost : octets réservés dans le budget mémoire pour cette entrée
+    private record Entry(int length, List<Span> spans, long cost) {}
+
+    // Estimation de l'occupation du tas : entrée de map, clé, liste, puis un Span par jeton
+    private static final int ENTRY_BYTES = 96;
+    private static final int SPAN_BYTES = 32;
+
+    // Au-delà, le reste de la ligne n'est pas coloré : borne le coût des lignes minifiées
+    static final int MAX_TOKENIZED_LENGTH = 4096;
+    private static final int HEADER_LENGTH = 200;
+
+    private static final Pattern TIMESTAMP = Pattern.compile(
+            "\\d{4}-\\d{2}-\\d{2}[T ]\\d{2}:\\d{2}:\\d{2}(?:[.,]\\d{1,9})?(?:Z|[+-]\\d{2}:?\\d{2})?"
+                    + "|\\d{2}/[A-Z][a-z]{2}/\\d{4}:\\d{2}:\\d{2}:\\d{2}(?: [+-]\\d{4})?"
+                    + "|[A-Z][a-z]{2} [ \\d]\\d \\d{2}:\\d{2}:\\d{2}"
+                    + "|\\d{2}:\\d{2}:\\d{2}(?:[.,]\\d{1,9})?");
+    private static final Map<String, TokenType> LEVELS = Map.ofEntries(
+            Map.entry("FATAL", TokenType.ERROR), Map.entry("SEVERE", TokenType.ERROR),
+            Map.entry("CRITICAL", TokenType.ERROR), Map.entry("ERROR", TokenType.ERROR), Map.entry("ERR", TokenType.ERROR),
+            Map.entry("WARNING", TokenType.WARN), Map.entry("WARN", TokenType.WARN),
+            Map.entry("INFO", TokenType.INFO), Map.entry("NOTICE", TokenType.INFO),
+            Map.entry("DEBUG", TokenType.DEBUG), Map.entry("TRACE", TokenType.DEBUG), Map.entry("FINE", TokenType.DEBUG),
+            Map.entry("FINER", TokenType.DEBUG), Map.entry("FINEST", TokenType.DEBUG));
+
+    private final Map<Long, Entry> cache;
+    private final MemoryBudget memoryBudget;
+    private long hits = 0;
+    private long misses = 0;
+
+    public LogHighlighter(int capacity, MemoryBudget memoryBudget) {
+        this.memoryBudget = memoryBudget;
+        cache = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() <= capacity) return false;
+                memoryBudget.release(eldest.getValue().cost());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Jetons de la ligne commençant à {@code byteOffset} dans le fichier, depuis le cache si possible.
+     */
+    public List<Span> spans(long byteOffset, String line) {
+        Entry entry = cache.get(byteOffset);
+        if (entry != null && entry.length() == line.length()) {
+            hits++;
+            return entry.spans();
+        }
+        misses++;
+        List<Span> spans = tokenize(line);
+        long cost = ENTRY_BYTES + (long) spans.size() * SPAN_BYTES;
+        // Budget épuisé : les jetons sont calculés mais pas gardés
+        if (memoryBudget.tryReserve(cost)) {
+            Entry previous = cache.put(byteOffset, new Entry(line.length(), spans, cost));
+            if (previous != null) memoryBudget.release(previous.cost());
+        }
+        return spans;
+    }
+
+    /** À appeler quand les offsets ne désignent plus les mêmes lignes (autre fichier, autre encodage). */
+    public void clear() {
+        cache.values().forEach(entry -> memoryBudget.release(entry.cost()));
+        cache.clear();
+    }
+
+    public String describe() {
+        long total = hits + misses;
+        return String.format("%d lignes en cache, %.0f%% de réutilisation", cache.size(),
+                total == 0 ? 0.0 : hits * 100.0 / total);
+    }
+
+    /**
+     * Jetons triés et sans chevauchement, en une seule passe sur la ligne : les expressions
+     * régulières coûtaient plusieurs dizaines de microsecondes par ligne.
+     */
+    static List<Span> tokenize(String line) {
+        List<Span> spans = new ArrayList<>();
+        int length = Math.min(line.length(), MAX_TOKENIZED_LENGTH);
+        int indent = 0;
+        while (indent < length && Character.isWhitespace(line.charAt(indent))) indent++;
+        if (indent == length) return spans;
+
+        // Ligne de pile : colorée en entier
+        if (indent > 0 && (line.startsWith("at ", indent) || line.startsWith("... ", indent))) {
+            spans.add(new Span(indent, length, TokenType.STACK_FRAME));
+            return spans;
+        }
+
+        int header = Math.min(length, HEADER_LENGTH);
+        boolean timestampFound = false;
+        boolean levelFound = false;
+        boolean loggerFound = false;
+        int i = indent;
+        while (i < length) {
+            char c = line.charAt(i);
+
+            // Horodatage : seulement en tête de ligne, essayé sur les débuts de nombre ou de mois
+            if (!timestampFound && i <= 32 && (Character.isDigit(c) || Character.isUpperCase(c))
+                    && (i == 0 || !isWordChar(line.charAt(i - 1)))) {
+                Matcher timestamp = TIMESTAMP.matcher(line).region(i, header);
+                if (timestamp.lookingAt()) {
+                    spans.add(new Span(i, timestamp.end(), TokenType.TIMESTAMP));
+                    timestampFound = true;
+                    i = timestamp.end();
+                    continue;
+                }
+            }
+
+            if (!isWordChar(c)) {
+                i++;
+                continue;
+            }
+            int wordStart = i;
+            while (i < length && isWordChar(line.charAt(i))) i++;
+            int wordEnd = i;
+            while (wordEnd > wordStart && line.charAt(wordEnd - 1) == '.') wordEnd--;
+
+            // clé=valeur
+            if (i < length && line.charAt(i) == '=' && (Character.isLetter(c) || c == '_')) {
+                spans.add(new Span(wordStart, i, TokenType.KEY));
+                int valueStart = ++i;
+                if (i < length && line.charAt(i) == '"') {
+                    int close = line.indexOf('"', i + 1);
+                    i = close < 0 || close >= length ? length : close + 1;
+                } else {
+                    while (i < length && !isValueEnd(line.charAt(i))) i++;
+                }
+                if (i > valueStart) spans.add(new Span(valueStart, i, TokenType.VALUE));
+                continue;
+            }
+
+            if (!levelFound && wordStart < header && Character.isUpperCase(c)) {
+                TokenType level = LEVELS.get(line.substring(wordStart, wordEnd));
+                if (level != null) {
+                    spans.add(new Span(wordStart, wordEnd, level));
+                    levelFound = true;
+                    continue;
+                }
+            }
+
+            int lastDot = line.lastIndexOf('.', wordEnd - 1);
+            if (lastDot > wordStart && isQualifiedName(line, wordStart, wordEnd)) {
+                if (isThrowableName(line, lastDot + 1, wordEnd)) {
+                    spans.add(new Span(wordStart, wordEnd, TokenType.EXCEPTION));
+                } else if (levelFound && !loggerFound && wordStart < header) {
+                    // Le logger suit le niveau (logback, log4j) ; sans niveau, on ne devine pas
+                    spans.add(new Span(wordStart, wordEnd, TokenType.LOGGER));
+                    loggerFound = true;
+                }
+            }
+        }
+        return spans;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '.' || c == '-';
+    }
+
+    private static boolean isValueEnd(char c) {
+        return Character.isWhitespace(c) || c == ',' || c == ';' || c == '"';
+    }
+
+    // a.b.C : segments non vides commençant par une lettre, sans tiret
+    private static boolean isQualifiedName(String line, int start, int end) {
+        boolean segmentStart = true;
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            if (c == '.') {
+                if (segmentStart) return false;
+                segmentStart = true;
+            } else if (c == '-' || (segmentStart && !Character.isLetter(c) && c != '_' && c != '$')) {
+                return false;
+            } else {
+                segmentStart = false;
+            }
+        }
+        return !segmentStart;
+    }
+
+    private static boolean isThrowableName(String line, int start, int end) {
+        if (!Character.isUpperCase(line.charAt(start))) return false;
+        String name = line.substring(start, end);
+        return name.endsWith("Exception") || name.endsWith("Error") || name.endsWith("Throwable");
+    }
+}
@@ -1,6 +1,7 @@
 package streamtext;
 public class Main {
     public static void main(String[] args) {
+        StartupMetrics.markLaunch();
         AdvancedLargeFileViewer.main(args);
     }
 }
\ No newline at end of file
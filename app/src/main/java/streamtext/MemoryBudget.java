@@ -0,0 +1,144 @@
+package streamtext;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Budget mémoire unique partagé par les buffers de lecture (chunks, recherche dans un dossier,
+ * anneau des flux), le texte décodé du chunk affiché et le cache de coloration des logs.
+ * Le budget est calculé à partir de Runtime.maxMemory() : quand il est épuisé, les
+ * demandes sont réduites (ou refusées) au lieu de provoquer un OutOfMemoryError.
+ * Les buffers d'E/S sont alloués hors du tas (direct) quand c'est possible et
+ * recyclés pour éviter de dépendre du GC pour libérer la mémoire native.
+ */
+public final class MemoryBudget {
+
+    private static final long MIN_BUDGET = 16L * 1024 * 1024;
+    private static final long MAX_BUDGET = 1024L * 1024 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 4;
+
+    private static final MemoryBudget INSTANCE = new MemoryBudget(defaultBudget());
+
+    private final long budget;
+    private long reserved = 0;
+    private final Deque<ByteBuffer> pool = new ArrayDeque<>();
+
+    MemoryBudget(long budget) {
+        this.budget = budget;
+    }
+
+    public static MemoryBudget getInstance() {
+        return INSTANCE;
+    }
+
+    // Un quart du tas maximum, borné : le reste est laissé à JavaFX et aux chaînes décodées
+    private static long defaultBudget() {
+        long max = Runtime.getRuntime().maxMemory();
+        if (max == Long.MAX_VALUE) return MAX_BUDGET;
+        return Math.max(MIN_BUDGET, Math.min(MAX_BUDGET, max / 4));
+    }
+
+    public long getBudget() {
+        return budget;
+    }
+
+    public synchronized long getReserved() {
+        return reserved;
+    }
+
+    public synchronized long getAvailable() {
+        return budget - reserved;
+    }
+
+    /**
+     * Réserve des octets pour des données qui ne sont pas des buffers (texte décodé, cache).
+     * Retourne false si le budget est épuisé, même après avoir vidé le pool.
+     */
+    public synchronized boolean tryReserve(long bytes) {
+        if (bytes > budget - reserved) {
+            trimPool(bytes - (budget - reserved));
+        }
+        if (bytes > budget - reserved) return false;
+        reserved += bytes;
+        return true;
+    }
+
+    public synchronized void release(long bytes) {
+        reserved = Math.max(0, reserved - bytes);
+    }
+
+    /**
+     * Alloue un buffer d'au moins {@code minimum} octets, idéalement {@code preferred}.
+     * Retourne null si même le minimum ne tient pas dans le budget.
+     */
+    public synchronized ByteBuffer allocate(int preferred, int minimum, boolean direct) {
+        // Réutiliser un buffer recyclé qui couvre la taille demandée
+        ByteBuffer smaller = null;
+        long pooledBytes = 0;
+        for (ByteBuffer pooled : pool) {
+            pooledBytes += pooled.capacity();
+            if (pooled.isDirect() != direct || pooled.capacity() < minimum) continue;
+            if (pooled.capacity() >= preferred && pooled.capacity() <= preferred * 2L) {
+                return takeFromPool(pooled, preferred);
+            }
+            if (pooled.capacity() < preferred && (smaller == null || pooled.capacity() > smaller.capacity())) {
+                smaller = pooled;
+            }
+        }
+        // Un buffer recyclé plus petit n'est repris que si le budget, pool compris, ne permet pas mieux
+        if (smaller != null && getAvailable() + pooledBytes < preferred) {
+            return takeFromPool(smaller, preferred);
+        }
+
+        if (preferred > getAvailable()) {
+            trimPool(preferred - getAvailable());
+        }
+        int size = (int) Math.min(preferred, getAvailable());
+        if (size < minimum) return null;
+
+        ByteBuffer buffer;
+        try {
+            buffer = direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+        } catch (OutOfMemoryError e) {
+            // Mémoire native épuisée (-XX:MaxDirectMemorySize) : on se rabat sur le tas
+            if (!direct) return null;
+            try {
+                buffer = ByteBuffer.allocate(size);
+            } catch (OutOfMemoryError heapError) {
+                return null;
+            }
+        }
+        reserved += size;
+        return buffer;
+    }
+
+    private ByteBuffer takeFromPool(ByteBuffer pooled, int preferred) {
+        pool.remove(pooled);
+        pooled.clear();
+        pooled.limit(Math.min(preferred, pooled.capacity()));
+        return pooled;
+    }
+
+    /**
+     * Rend un buffer obtenu par {@link #allocate}. Il est gardé pour être réutilisé.
+     */
+    public synchronized void release(ByteBuffer buffer) {
+        if (buffer == null) return;
+        if (pool.size() < MAX_POOLED_BUFFERS) {
+            pool.push(buffer);
+        } else {
+            reserved = Math.max(0, reserved - buffer.capacity());
+        }
+    }
+
+    // Libère des buffers recyclés jusqu'à récupérer au moins {@code needed} octets
+    private void trimPool(long needed) {
+        long freed = 0;
+        while (freed < needed && !pool.isEmpty()) {
+            ByteBuffer dropped = pool.removeLast();
+            freed += dropped.capacity();
+            reserved = Math.max(0, reserved - dropped.capacity());
+        }
+    }
+}
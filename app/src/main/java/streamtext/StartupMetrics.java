@@ -0,0 +1,76 @@
+package streamtext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Mesures de démarrage : temps jusqu'à la première fenêtre et jusqu'au premier chunk affiché,
+ * comptés depuis le lancement du processus. Le premier chunk n'est mesuré que pour un fichier
+ * passé en argument : ouvert plus tard depuis l'interface, le temps compterait l'attente de l'utilisateur.
+ * Rien n'est écrit sans la propriété {@code -Dstreamtext.metrics} : vide, la mesure va sur stderr ;
+ * sinon elle désigne un fichier auquel la mesure est ajoutée, pour suivre son évolution d'une version à l'autre.
+ */
+public final class StartupMetrics {
+
+    private static final long UNSET = -1;
+
+    private static long launchNanos = UNSET;
+    private static boolean launchFile = false;
+    private static long firstWindowMillis = UNSET;
+    private static long firstChunkMillis = UNSET;
+
+    private StartupMetrics() {
+    }
+
+    public static void markLaunch() {
+        launchNanos = System.nanoTime();
+    }
+
+    public static void markFirstWindow() {
+        if (firstWindowMillis == UNSET) firstWindowMillis = sinceStartMillis();
+    }
+
+    /** Un fichier (ou l'entrée standard) a été passé en argument : son premier chunk sera mesuré. */
+    public static void markLaunchFile() {
+        launchFile = true;
+    }
+
+    public static void markFirstChunk() {
+        if (!launchFile || firstChunkMillis != UNSET) return;
+        firstChunkMillis = sinceStartMillis();
+
+        String metricsFile = System.getProperty("streamtext.metrics");
+        if (metricsFile == null) return;
+        if (metricsFile.isEmpty()) {
+            System.err.println("StreamText: time_to_first_chunk_ms=" + firstChunkMillis);
+        } else {
+            String line = String.format("%s version=%s time_to_first_window_ms=%d time_to_first_chunk_ms=%d%n",
+                    Instant.now(), AutoUpdater.CURRENT_VERSION, firstWindowMillis, firstChunkMillis);
+            try {
+                Files.writeString(Path.of(metricsFile), line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                System.err.println("StreamText: impossible d'écrire les mesures: " + e.getMessage());
+            }
+        }
+    }
+
+    public static String describe() {
+        if (firstWindowMillis == UNSET) return "Démarrage: pas encore mesuré";
+        return "Démarrage: fenêtre en " + firstWindowMillis + " ms, premier chunk en " +
+                (firstChunkMillis == UNSET ? "-" : firstChunkMillis + " ms");
+    }
+
+    // Depuis le lancement du processus (JVM comprise), sinon depuis l'entrée dans main()
+    private static long sinceStartMillis() {
+        Optional<Instant> processStart = ProcessHandle.current().info().startInstant();
+        if (processStart.isPresent()) {
+            return Duration.between(processStart.get(), Instant.now()).toMillis();
+        }
+        return launchNanos == UNSET ? 0 : (System.nanoTime() - launchNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,203 @@
+package streamtext;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Future;
+
+/**
+ * Flux non adressable (stdin, tube nommé) rendu navigable comme un fichier.
+ * Les données récentes restent dans un anneau mémoire borné ; les plus anciennes sont
+ * déversées dans un fichier temporaire, ce qui permet de revenir en arrière, de chercher
+ * et de changer de chunk pendant que le flux continue d'arriver.
+ * L'ingestion lit directement dans l'anneau (pas de copie intermédiaire) sur un thread dédié
+ * du {@link TaskScheduler}, jamais sur le thread JavaFX. Le canal est ouvert par ce thread :
+ * l'ouverture d'un tube nommé bloque jusqu'à l'arrivée d'un écrivain.
+ */
+public class StreamingSource implements ChunkSource {
+
+    public interface Listener {
+        void onGrowth(long size);
+        void onEnd(long size);
+        void onError(String error);
+    }
+
+    public interface ChannelOpener {
+        ReadableByteChannel open() throws IOException;
+    }
+
+    // L'anneau prend au plus un quart du budget partagé : le reste sert aux chunks affichés
+    private static final int MAX_RING_SIZE = 64 * 1024 * 1024;
+    private static final int MIN_RING_SIZE = 4 * 1024 * 1024;
+    private static final int RING_BUDGET_SHARE = 4;
+    private static final int READ_SIZE = 1024 * 1024;
+    private static final long NOTIFY_INTERVAL_NANOS = 250_000_000;
+
+    private final ChannelOpener opener;
+    private volatile ReadableByteChannel input;
+    private final String name;
+    private Listener listener;
+    private final ByteBuffer ring;
+    private final int capacity;
+    private final FileChannel spill;
+
+    // Octets reçus au total / octets déjà déversés sur disque. L'anneau contient [spilled, written).
+    // written est lu sans verrou par size() : le thread FX ne doit pas attendre un déversement sur disque.
+    private volatile long written = 0;
+    private long spilled = 0;
+    private volatile boolean growing = true;
+    private volatile boolean closed = false;
+    private Future<?> ingestTask;
+
+    public StreamingSource(ChannelOpener opener, String name) throws IOException {
+        this(opener, name, ringSize(MemoryBudget.getInstance().getBudget()));
+    }
+
+    static int ringSize(long budget) {
+        return (int) Math.max(MIN_RING_SIZE, Math.min(MAX_RING_SIZE, budget / RING_BUDGET_SHARE));
+    }
+
+    StreamingSource(ReadableByteChannel input, String name, int ringSize) throws IOException {
+        this(() -> input, name, ringSize);
+    }
+
+    StreamingSource(ChannelOpener opener, String name, int ringSize) throws IOException {
+        this.opener = opener;
+        this.name = name;
+        this.ring = MemoryBudget.getInstance().allocate(ringSize, Math.min(ringSize, MIN_RING_SIZE), true);
+        if (ring == null) {
+            throw new IOException("Mémoire insuffisante pour lire un flux");
+        }
+        this.capacity = ring.limit();
+        Path spillFile = Files.createTempFile("streamtext-stream-", ".spill");
+        this.spill = FileChannel.open(spillFile, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
+    /**
+     * Démarre l'ingestion. Le listener est appelé depuis le thread d'ingestion, au plus quatre fois par seconde.
+     */
+    public void start(Listener listener) {
+        this.listener = listener;
+        ingestTask = TaskScheduler.getInstance().startDedicated("stream-ingest", this::ingest);
+    }
+
+    private void ingest() {
+        int readSize = Math.min(READ_SIZE, capacity / 2);
+        long lastNotify = 0;
+        try {
+            ReadableByteChannel channel = opener.open();
+            input = channel;
+            // Fermé pendant l'ouverture (tube sans écrivain) : personne d'autre ne fermera le canal
+            if (closed) {
+                channel.close();
+                return;
+            }
+            while (!closed) {
+                ByteBuffer target;
+                synchronized (this) {
+                    if (capacity - (written - spilled) < readSize) {
+                        spillOldest(Math.max(readSize, capacity / 4));
+                    }
+                    int index = (int) (written % capacity);
+                    target = ring.slice(index, Math.min(readSize, capacity - index));
+                }
+                // Lecture bloquante hors verrou : la zone cible est au-delà de written, personne d'autre n'y touche
+                int read = channel.read(target);
+                if (read < 0) break;
+                synchronized (this) {
+                    written += read;
+                }
+
+                long now = System.nanoTime();
+                if (now - lastNotify >= NOTIFY_INTERVAL_NANOS) {
+                    lastNotify = now;
+                    listener.onGrowth(size());
+                }
+            }
+        } catch (ClosedChannelException e) {
+            // Fermeture demandée par l'utilisateur
+        } catch (IOException e) {
+            if (!closed) listener.onError(e.getMessage());
+        } finally {
+            growing = false;
+        }
+        if (!closed) listener.onEnd(size());
+    }
+
+    // Écrit au moins {@code bytes} octets les plus anciens de l'anneau dans le fichier temporaire. Appelé sous verrou.
+    private void spillOldest(long bytes) throws IOException {
+        long remaining = Math.min(bytes, written - spilled);
+        while (remaining > 0) {
+            int index = (int) (spilled % capacity);
+            int length = (int) Math.min(remaining, capacity - index);
+            ByteBuffer region = ring.slice(index, length);
+            long position = spilled;
+            while (region.hasRemaining()) {
+                position += spill.write(region, position);
+            }
+            spilled += length;
+            remaining -= length;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long size() {
+        return written;
+    }
+
+    @Override
+    public boolean isGrowing() {
+        return growing;
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) throws IOException {
+        long onDisk;
+        int length;
+        synchronized (this) {
+            if (position >= written) return -1;
+            length = (int) Math.min(dst.remaining(), written - position);
+            if (position >= spilled) {
+                int index = (int) (position % capacity);
+                int first = Math.min(length, capacity - index);
+                dst.put(ring.slice(index, first));
+                if (first < length) dst.put(ring.slice(0, length - first));
+                return length;
+            }
+            onDisk = spilled;
+        }
+        // Partie déjà déversée : immuable, lue hors verrou. L'appelant relira la suite dans l'anneau.
+        ByteBuffer view = dst.slice().limit((int) Math.min(length, onDisk - position));
+        int read = spill.read(view, position);
+        if (read > 0) dst.position(dst.position() + read);
+        return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        growing = false;
+        if (ingestTask != null) ingestTask.cancel(true);
+        try {
+            ReadableByteChannel channel = input;
+            if (channel != null) channel.close();
+        } finally {
+            synchronized (this) {
+                spill.close();
+                // Pas de recyclage : une lecture interrompue peut encore écrire dans l'anneau
+                MemoryBudget.getInstance().release((long) ring.capacity());
+            }
+        }
+    }
+}
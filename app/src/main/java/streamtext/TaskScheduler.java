@@ -0,0 +1,235 @@
+package streamtext;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Planificateur central de toutes les tâches de fond de l'application.
+ * Chaque tâche est soumise dans une voie (lane) de priorité ; une tâche d'une voie
+ * ne démarre que si aucune voie plus prioritaire n'a de travail en attente, et chaque
+ * voie a sa propre limite de concurrence et de file d'attente (back-pressure).
+ * Les tâches tournent sur des threads virtuels.
+ * <p>
+ * La priorité est stricte, sans vieillissement : une voie dont la file ne se vide jamais affame
+ * les suivantes. Pendant une recherche dans un dossier, le parcours réalimente la file INDEXING
+ * jusqu'à la fin ; HOUSEKEEPING ne démarre alors plus rien, et un téléchargement de mise à jour
+ * confirmé par l'utilisateur attend la fin de la recherche.
+ */
+public final class TaskScheduler {
+
+    public enum Lane {
+        // Lecture du chunk que l'utilisateur attend
+        VISIBLE(4, 16),
+        // Lecture anticipée, profil d'un fichier à l'ouverture
+        PREFETCH(2, 32),
+        // Indexation et recherche
+        INDEXING(Math.max(2, Runtime.getRuntime().availableProcessors()), 64),
+        // Mises à jour, nettoyage
+        HOUSEKEEPING(1, 16);
+
+        private final int maxConcurrent;
+        private final int queueCapacity;
+
+        Lane(int maxConcurrent, int queueCapacity) {
+            this.maxConcurrent = maxConcurrent;
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    private static final TaskScheduler INSTANCE = new TaskScheduler();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition spaceAvailable = lock.newCondition();
+    private final Map<Lane, ArrayDeque<LaneTask<?>>> queues = new EnumMap<>(Lane.class);
+    private final Map<Lane, Integer> running = new EnumMap<>(Lane.class);
+    private boolean shutdown = false;
+
+    // Package-private pour les tests ; l'application utilise l'instance partagée
+    TaskScheduler() {
+        for (Lane lane : Lane.values()) {
+            queues.put(lane, new ArrayDeque<>());
+            running.put(lane, 0);
+        }
+    }
+
+    public static TaskScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    private final class LaneTask<T> extends FutureTask<T> {
+        private final Lane lane;
+
+        LaneTask(Lane lane, Callable<T> callable) {
+            super(callable);
+            this.lane = lane;
+        }
+
+        @Override
+        protected void done() {
+            // Une tâche annulée encore en file libère sa place immédiatement
+            lock.lock();
+            try {
+                if (queues.get(lane).remove(this)) spaceAvailable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Soumet une tâche. Lève RejectedExecutionException si la file de la voie est pleine :
+     * l'appelant décide alors d'abandonner ou de réessayer plus tard.
+     */
+    public <T> Future<T> submit(Lane lane, Callable<T> task) {
+        LaneTask<T> laneTask = new LaneTask<>(lane, task);
+        lock.lock();
+        try {
+            if (shutdown) throw new RejectedExecutionException("Planificateur arrêté");
+            if (queues.get(lane).size() >= lane.queueCapacity) {
+                throw new RejectedExecutionException("File " + lane + " pleine");
+            }
+            queues.get(lane).add(laneTask);
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+        return laneTask;
+    }
+
+    public Future<?> submit(Lane lane, Runnable task) {
+        return submit(lane, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Comme {@link #submit(Lane, Runnable)} mais attend qu'une place se libère dans la file.
+     * À utiliser depuis un thread de fond qui produit beaucoup de tâches (jamais depuis le thread FX).
+     */
+    public Future<?> submitBlocking(Lane lane, Runnable task) throws InterruptedException {
+        LaneTask<Object> laneTask = new LaneTask<>(lane, () -> {
+            task.run();
+            return null;
+        });
+        lock.lockInterruptibly();
+        try {
+            while (!shutdown && queues.get(lane).size() >= lane.queueCapacity) {
+                spaceAvailable.await();
+            }
+            if (shutdown) throw new RejectedExecutionException("Planificateur arrêté");
+            queues.get(lane).add(laneTask);
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+        return laneTask;
+    }
+
+    /**
+     * Soumet une tâche après un délai, sans occuper de place dans la voie pendant l'attente.
+     */
+    public void schedule(Lane lane, long delayMillis, Runnable task) {
+        Thread.ofVirtual().name("scheduler-delay").start(() -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(delayMillis);
+                submit(lane, task);
+            } catch (InterruptedException | RejectedExecutionException e) {
+                // Application en cours d'arrêt : tâche abandonnée
+            }
+        });
+    }
+
+    /**
+     * Démarre une tâche de longue durée (ingestion d'un flux) sur son propre thread virtuel, hors des
+     * voies : elle n'occupe aucune place de concurrence pendant toute sa vie. cancel(true) l'interrompt.
+     */
+    public Future<?> startDedicated(String name, Runnable task) {
+        FutureTask<Object> future = new FutureTask<>(task, null);
+        lock.lock();
+        try {
+            if (shutdown) throw new RejectedExecutionException("Planificateur arrêté");
+        } finally {
+            lock.unlock();
+        }
+        Thread.ofVirtual().name(name).start(future);
+        return future;
+    }
+
+    /**
+     * Annule toutes les tâches en attente et refuse les nouvelles soumissions.
+     */
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+            for (ArrayDeque<LaneTask<?>> queue : queues.values()) {
+                for (LaneTask<?> task : queue.toArray(new LaneTask<?>[0])) {
+                    task.cancel(false);
+                }
+                queue.clear();
+            }
+            spaceAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued(Lane lane) {
+        lock.lock();
+        try {
+            return queues.get(lane).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getRunning(Lane lane) {
+        lock.lock();
+        try {
+            return running.get(lane);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Démarre autant de tâches que possible, par ordre de priorité. Appelé sous verrou.
+    private void dispatch() {
+        for (Lane lane : Lane.values()) {
+            ArrayDeque<LaneTask<?>> queue = queues.get(lane);
+            while (!queue.isEmpty() && running.get(lane) < lane.maxConcurrent) {
+                LaneTask<?> task = queue.poll();
+                spaceAvailable.signalAll();
+                if (task.isCancelled()) continue;
+                running.merge(lane, 1, Integer::sum);
+                start(task);
+            }
+            // Une voie prioritaire a encore du travail en attente : les voies suivantes patientent
+            if (!queue.isEmpty()) return;
+        }
+    }
+
+    private void start(LaneTask<?> task) {
+        Thread.ofVirtual().name("scheduler-" + task.lane.name().toLowerCase()).start(() -> {
+            try {
+                task.run();
+            } finally {
+                lock.lock();
+                try {
+                    running.merge(task.lane, -1, Integer::sum);
+                    dispatch();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,249 @@
+package streamtext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Téléchargement des mises à jour : reprise HTTP Range depuis un fichier .part,
+ * SHA-256 calculé pendant le flux et vérifié avant de livrer le fichier, et
+ * progression limitée à quelques événements par seconde.
+ * Ne dépend pas de JavaFX pour pouvoir être testé contre un serveur HTTP local.
+ */
+public class UpdateDownloader {
+
+    public interface ProgressListener {
+        void onProgress(long downloaded, long total);
+    }
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int WRITE_BUFFER_SIZE = 1024 * 1024;
+    private static final long PROGRESS_INTERVAL_NANOS = 100_000_000; // 10 événements/s au maximum
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes (\\d+)-\\d+/(\\d+|\\*)");
+    private static final Pattern SHA256_HEX = Pattern.compile("\\b([0-9a-fA-F]{64})\\b");
+
+    private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rwx------");
+
+    private final HttpClient client;
+
+    public UpdateDownloader() {
+        this(HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofSeconds(15))
+                .build());
+    }
+
+    public UpdateDownloader(HttpClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Répertoire de téléchargement propre à l'utilisateur : $XDG_CACHE_HOME/streamtext/update
+     * (ou ~/.cache/streamtext/update). Le paquet y attend l'installation en root : un répertoire
+     * partagé comme /tmp permettrait à un autre utilisateur de le remplacer après vérification.
+     */
+    public static Path updateDirectory() throws IOException {
+        String cacheHome = System.getenv("XDG_CACHE_HOME");
+        Path base = cacheHome != null && !cacheHome.isBlank() && Paths.get(cacheHome).isAbsolute()
+                ? Paths.get(cacheHome)
+                : Paths.get(System.getProperty("user.home"), ".cache");
+        return privateDirectory(base.resolve("streamtext").resolve("update"));
+    }
+
+    /**
+     * Crée {@code dir} en 0700 si besoin. Refuse un lien symbolique ou un répertoire qui
+     * n'appartient pas à l'utilisateur courant, et retire tout droit aux autres utilisateurs.
+     */
+    static Path privateDirectory(Path dir) throws IOException {
+        if (!Files.exists(dir, LinkOption.NOFOLLOW_LINKS)) {
+            Files.createDirectories(dir, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+        }
+        PosixFileAttributes attributes = Files.readAttributes(dir, PosixFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        if (attributes.isSymbolicLink() || !attributes.isDirectory()) {
+            throw new IOException("Répertoire de mise à jour refusé (lien symbolique ou fichier): " + dir);
+        }
+        UserPrincipal currentUser = FileSystems.getDefault().getUserPrincipalLookupService()
+                .lookupPrincipalByName(System.getProperty("user.name"));
+        if (!attributes.owner().equals(currentUser)) {
+            throw new IOException("Répertoire de mise à jour refusé (propriétaire " + attributes.owner().getName() + "): " + dir);
+        }
+        if (!attributes.permissions().equals(OWNER_ONLY)) {
+            Files.setPosixFilePermissions(dir, OWNER_ONLY);
+        }
+        return dir;
+    }
+
+    /**
+     * Somme du champ {@code digest} d'un asset de l'API GitHub Releases ("sha256:<hex>"),
+     * renseigné même pour les versions publiées sans fichier .sha256. Null si absent ou autre algorithme.
+     */
+    public static String assetDigest(String digest) {
+        if (digest == null || !digest.regionMatches(true, 0, "sha256:", 0, 7)) return null;
+        String hash = digest.substring(7).trim();
+        return SHA256_HEX.matcher(hash).matches() ? hash.toLowerCase(Locale.ROOT) : null;
+    }
+
+    /**
+     * Lit une somme SHA-256 publiée, au format "hash" seul ou "hash  nom" (sha256sum / SHA256SUMS).
+     * Retourne null si aucune somme ne correspond au fichier.
+     */
+    public String fetchChecksum(URI checksumUri, String fileName) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(checksumUri).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) return null;
+
+        String single = null;
+        int lines = 0;
+        for (String line : response.body().split("\\R")) {
+            Matcher matcher = SHA256_HEX.matcher(line);
+            if (!matcher.find()) continue;
+            lines++;
+            String hash = matcher.group(1).toLowerCase(Locale.ROOT);
+            String rest = line.substring(matcher.end()).trim();
+            if (rest.startsWith("*")) rest = rest.substring(1);
+            if (rest.equals(fileName)) return hash;
+            if (rest.isEmpty()) single = hash;
+        }
+        return lines == 1 ? single : null;
+    }
+
+    /**
+     * Télécharge {@code uri} vers {@code target} en reprenant un éventuel {@code target.part}.
+     * Le fichier n'est déplacé vers {@code target} que si son SHA-256 correspond à {@code expectedSha256}.
+     * En cas d'interruption, le .part est conservé pour la prochaine tentative.
+     */
+    public Path download(URI uri, Path target, String expectedSha256, ProgressListener listener)
+            throws IOException, InterruptedException {
+        if (expectedSha256 == null || expectedSha256.isBlank()) {
+            throw new IOException("Aucune somme de contrôle SHA-256 publiée pour cette mise à jour");
+        }
+        Path part = target.resolveSibling(target.getFileName() + ".part");
+        MessageDigest digest = newDigest();
+        long existing = Files.exists(part) ? hashExisting(part, digest) : 0;
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri).GET();
+        if (existing > 0) request.header("Range", "bytes=" + existing + "-");
+        HttpResponse<InputStream> response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+
+        long total;
+        boolean append;
+        switch (response.statusCode()) {
+            case 206 -> {
+                String contentRange = response.headers().firstValue("Content-Range").orElse("");
+                Matcher matcher = CONTENT_RANGE.matcher(contentRange);
+                if (!matcher.matches() || Long.parseLong(matcher.group(1)) != existing) {
+                    response.body().close();
+                    throw new IOException("Réponse partielle inattendue: " + contentRange);
+                }
+                total = matcher.group(2).equals("*") ? -1 : Long.parseLong(matcher.group(2));
+                append = true;
+            }
+            case 200 -> {
+                // Le serveur ignore Range : on repart de zéro
+                total = response.headers().firstValueAsLong("Content-Length").orElse(-1);
+                existing = 0;
+                digest.reset();
+                append = false;
+            }
+            case 416 -> {
+                // Plage hors fichier : le .part est peut-être déjà complet
+                response.body().close();
+                return finish(part, target, digest, expectedSha256);
+            }
+            default -> {
+                response.body().close();
+                throw new IOException("HTTP " + response.statusCode() + " pour " + uri);
+            }
+        }
+
+        try (InputStream in = response.body();
+             FileChannel out = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING)) {
+            byte[] chunk = new byte[READ_BUFFER_SIZE];
+            ByteBuffer staging = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+            long downloaded = existing;
+            long lastProgress = 0;
+            int read;
+
+            while ((read = in.read(chunk)) != -1) {
+                if (Thread.interrupted()) throw new InterruptedException();
+                digest.update(chunk, 0, read);
+                if (staging.remaining() < read) flush(staging, out);
+                staging.put(chunk, 0, read);
+                downloaded += read;
+
+                long now = System.nanoTime();
+                if (listener != null && now - lastProgress >= PROGRESS_INTERVAL_NANOS) {
+                    lastProgress = now;
+                    listener.onProgress(downloaded, total);
+                }
+            }
+            flush(staging, out);
+            if (listener != null) listener.onProgress(downloaded, total < 0 ? downloaded : total);
+        }
+
+        return finish(part, target, digest, expectedSha256);
+    }
+
+    private Path finish(Path part, Path target, MessageDigest digest, String expectedSha256) throws IOException {
+        String actual = HexFormat.of().formatHex(digest.digest());
+        if (!actual.equalsIgnoreCase(expectedSha256.trim())) {
+            Files.deleteIfExists(part);
+            throw new IOException("Somme de contrôle SHA-256 invalide (attendue " + expectedSha256 + ", obtenue " + actual + ")");
+        }
+        return Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Relit la partie déjà téléchargée pour reprendre le calcul du SHA-256
+    private long hashExisting(Path part, MessageDigest digest) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+        long total = 0;
+        try (FileChannel in = FileChannel.open(part, StandardOpenOption.READ)) {
+            while (in.read(buffer) != -1) {
+                buffer.flip();
+                total += buffer.remaining();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return total;
+    }
+
+    private static void flush(ByteBuffer staging, FileChannel out) throws IOException {
+        staging.flip();
+        while (staging.hasRemaining()) out.write(staging);
+        staging.clear();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package streamtext;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkGovernorTest {
+
+    private static final int MB = 1024 * 1024;
+    private static final int TEXT = 2;
+    private static final int HEX = 10;
+
+    @Test
+    void slowRenderingShrinksChunks() {
+        ChunkGovernor governor = new ChunkGovernor(new MemoryBudget(1024L * MB), 4 * MB);
+        // 1 s pour mettre en page 1 MB : bien au-delà des 120 ms visés
+        governor.record(MB, 10_000_000, 1_000_000_000);
+        assertEquals(ChunkGovernor.MIN_CHUNK_SIZE, governor.getRecommendedSize(TEXT));
+    }
+
+    @Test
+    void fastDiskAndRenderingGrowChunks() {
+        ChunkGovernor governor = new ChunkGovernor(new MemoryBudget(1024L * MB), MB);
+        governor.record(MB, 1_000_000, 1_000_000);
+        assertEquals(ChunkGovernor.MAX_CHUNK_SIZE, governor.getRecommendedSize(TEXT));
+    }
+
+    @Test
+    void recommendationFollowsTheSlowerOfReadAndRender() {
+        ChunkGovernor governor = new ChunkGovernor(new MemoryBudget(1024L * MB), MB);
+        // Lecture : 80 ms pour 2 MB, affichage instantané
+        governor.record(2 * MB, 80_000_000, 1_000);
+        assertEquals(2 * MB, governor.getRecommendedSize(TEXT));
+    }
+
+    @Test
+    void decodedTextMustFitInAThirdOfTheBudget() {
+        ChunkGovernor governor = new ChunkGovernor(new MemoryBudget(24L * MB), MB);
+        governor.record(MB, 1_000, 1_000);
+        // 8 MB pour l'affichage : 4 MB en texte (×2), 800 KB en hexadécimal (×10) arrondis à 512 KB
+        assertEquals(4 * MB, governor.getRecommendedSize(TEXT));
+        assertEquals(4 * MB, governor.getMaxChunkSize(TEXT));
+        assertEquals(512 * 1024, governor.getRecommendedSize(HEX));
+        assertEquals(512 * 1024, governor.getMaxChunkSize(HEX));
+    }
+
+    @Test
+    void neverRecommendsLessThanTheMinimum() {
+        ChunkGovernor governor = new ChunkGovernor(new MemoryBudget(MB), MB);
+        assertEquals(ChunkGovernor.MIN_CHUNK_SIZE, governor.getMaxChunkSize(HEX));
+        assertEquals(ChunkGovernor.MIN_CHUNK_SIZE, governor.getRecommendedSize(TEXT));
+    }
+
+    @Test
+    void ignoresEmptyMeasurements() {
+        ChunkGovernor governor = new ChunkGovernor(new MemoryBudget(1024L * MB), 2 * MB);
+        governor.record(0, 1_000_000_000, 1_000_000_000);
+        assertEquals(2 * MB, governor.getRecommendedSize(TEXT));
+        assertEquals("pas encore de mesure", governor.describe());
+    }
+}
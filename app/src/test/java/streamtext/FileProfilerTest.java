@@ -0,0 +1,124 @@
+package streamtext;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileProfilerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FileProfiler.Profile profile(String name, byte[] content) throws Exception {
+        Path file = tempDir.resolve(name);
+        Files.write(file, content);
+        try (FileChunkSource source = new FileChunkSource(file)) {
+            return FileProfiler.profile(source);
+        }
+    }
+
+    private static String logLines(int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append("2026-01-01 12:00:00.000 INFO  [main] app.Service - requête traitée n°").append(i).append('\n');
+        }
+        return text.toString();
+    }
+
+    @Test
+    void estimatesLinesOfLargeUtf8File() throws Exception {
+        // Plus grand que l'ensemble des échantillons : l'estimation est extrapolée
+        String text = logLines(200_000);
+        FileProfiler.Profile profile = profile("app.log", text.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(StandardCharsets.UTF_8, profile.charset());
+        assertFalse(profile.binary());
+        assertEquals(FileProfiler.ViewMode.TEXT, profile.viewMode());
+        assertEquals(200_000, profile.estimatedLines(), 200_000 * 0.05);
+        assertTrue(profile.maxLineLength() < 120);
+    }
+
+    @Test
+    void detectsUtf16WithoutBom() throws Exception {
+        FileProfiler.Profile profile = profile("utf16.log", logLines(1000).getBytes(StandardCharsets.UTF_16LE));
+
+        assertEquals(StandardCharsets.UTF_16LE, profile.charset());
+        assertEquals(1000, profile.estimatedLines());
+    }
+
+    @Test
+    void detectsBom() throws Exception {
+        FileProfiler.Profile profile = profile("bom.log", logLines(10).getBytes(StandardCharsets.UTF_16));
+
+        assertEquals(StandardCharsets.UTF_16BE, profile.charset());
+    }
+
+    @Test
+    void detectsSingleByteEncodings() throws Exception {
+        assertEquals(StandardCharsets.ISO_8859_1,
+                profile("latin1.log", logLines(100).getBytes(StandardCharsets.ISO_8859_1)).charset());
+        assertEquals(Charset.forName("Windows-1252"),
+                profile("cp1252.log", ("prix: 10 €\n" + logLines(100)).getBytes(Charset.forName("Windows-1252"))).charset());
+    }
+
+    @Test
+    void detectsBinaryData() throws Exception {
+        byte[] data = new byte[500_000];
+        new Random(3).nextBytes(data);
+        FileProfiler.Profile profile = profile("data.bin", data);
+
+        assertTrue(profile.binary());
+        assertEquals(FileProfiler.ViewMode.HEX, profile.viewMode());
+    }
+
+    @Test
+    void detectsCompressedData() throws Exception {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(logLines(100_000).getBytes(StandardCharsets.UTF_8));
+        }
+        FileProfiler.Profile profile = profile("app.log.gz", compressed.toByteArray());
+
+        assertTrue(profile.binary());
+        assertEquals(FileProfiler.ViewMode.HEX, profile.viewMode());
+    }
+
+    @Test
+    void detectsBinaryWithFewControlBytes() throws Exception {
+        // Sans octet nul et avec un tiers de contrôles en moins : toujours bien au-dessus du texte
+        byte[] data = new byte[500_000];
+        Random random = new Random(5);
+        random.nextBytes(data);
+        for (int i = 0; i < data.length; i++) {
+            if (data[i] == 0 || (data[i] > 0 && data[i] < 0x20 && random.nextInt(3) == 0)) data[i] = 'A';
+        }
+        assertTrue(profile("data.bin", data).binary());
+    }
+
+    @Test
+    void textWithTabsAndEscapesIsNotBinary() throws Exception {
+        String colored = "\u001B[32mINFO\u001B[0m\tservice démarré\r\n".repeat(5000);
+        FileProfiler.Profile profile = profile("colored.log", colored.getBytes(StandardCharsets.UTF_8));
+
+        assertFalse(profile.binary());
+        assertEquals(StandardCharsets.UTF_8, profile.charset());
+    }
+
+    @Test
+    void wrapsVeryLongLines() throws Exception {
+        String minified = "{\"k\":\"" + "v".repeat(200_000) + "\"}";
+        FileProfiler.Profile profile = profile("min.json", minified.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(FileProfiler.ViewMode.WRAPPED, profile.viewMode());
+        assertEquals(1, profile.estimatedLines());
+    }
+}
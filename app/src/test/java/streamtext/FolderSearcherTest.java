@@ -0,0 +1,152 @@
+package streamtext;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FolderSearcherTest {
+
+    @TempDir
+    Path tempDir;
+
+    // Résultats collectés depuis les threads de fond
+    private static final class Results implements FolderSearcher.SearchCallback {
+        final Map<Path, List<FolderSearcher.Match>> matches = new ConcurrentHashMap<>();
+        final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile long totalMatches;
+        volatile boolean truncated;
+
+        @Override
+        public void onFileMatches(Path file, List<FolderSearcher.Match> found) {
+            matches.computeIfAbsent(file, f -> Collections.synchronizedList(new ArrayList<>())).addAll(found);
+        }
+
+        @Override
+        public void onProgress(int filesSearched, int filesFound) {
+        }
+
+        @Override
+        public void onComplete(int filesSearched, long totalMatches, boolean truncated) {
+            this.totalMatches = totalMatches;
+            this.truncated = truncated;
+            done.countDown();
+        }
+
+        @Override
+        public void onError(Path file, String error) {
+            errors.add(file + ": " + error);
+        }
+
+        List<Long> offsets(Path file) {
+            return matches.getOrDefault(file, List.of()).stream().map(FolderSearcher.Match::offset).sorted().toList();
+        }
+    }
+
+    private Results search(String include, String exclude, String text, Charset charset) throws InterruptedException {
+        Results results = new Results();
+        new FolderSearcher(tempDir, include, exclude, text, charset, results).start();
+        assertTrue(results.done.await(30, TimeUnit.SECONDS), "recherche non terminée");
+        assertEquals(List.of(), results.errors);
+        return results;
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        return file;
+    }
+
+    @Test
+    void includeAndExcludeGlobsSelectFiles() throws Exception {
+        Path log = write("app.log", "a ERROR b\n");
+        Path rotated = write("app.log.1", "ERROR\n");
+        write("notes.md", "ERROR\n");
+        write("app.log.gz", "ERROR\n");
+        write("archive/old.log", "ERROR\n");
+
+        Results results = search("*.log, *.log.*", "*.gz; archive", "ERROR", StandardCharsets.UTF_8);
+
+        assertEquals(List.of(2L), results.offsets(log));
+        assertEquals(List.of(0L), results.offsets(rotated));
+        assertEquals(2, results.matches.size());
+        assertEquals(2, results.totalMatches);
+        assertFalse(results.truncated);
+    }
+
+    @Test
+    void findsMatchSplitAcrossTwoReads() throws Exception {
+        // Le buffer de lecture fait 1 MB : l'occurrence commence 3 octets avant sa fin
+        int boundary = 1024 * 1024;
+        StringBuilder content = new StringBuilder("x".repeat(boundary - 3)).append("NEEDLE");
+        content.append("y".repeat(1000)).append("NEEDLE");
+        Path file = write("big.log", content.toString());
+
+        Results results = search("*.log", "", "NEEDLE", StandardCharsets.UTF_8);
+
+        assertEquals(List.of((long) boundary - 3, (long) boundary + 3 + 1000), results.offsets(file));
+    }
+
+    @Test
+    void stopsAtPerFileLimit() throws Exception {
+        Path file = write("many.log", "hit\n".repeat(FolderSearcher.MAX_MATCHES_PER_FILE + 100));
+
+        Results results = search("*.log", "", "hit", StandardCharsets.UTF_8);
+
+        assertEquals(FolderSearcher.MAX_MATCHES_PER_FILE, results.offsets(file).size());
+        assertTrue(results.truncated);
+    }
+
+    @Test
+    void stopsAtTotalLimit() throws Exception {
+        int files = FolderSearcher.MAX_TOTAL_MATCHES / FolderSearcher.MAX_MATCHES_PER_FILE + 5;
+        for (int i = 0; i < files; i++) {
+            write("f" + i + ".log", "hit\n".repeat(FolderSearcher.MAX_MATCHES_PER_FILE));
+        }
+
+        Results results = search("*.log", "", "hit", StandardCharsets.UTF_8);
+
+        assertTrue(results.truncated);
+        // Les fichiers lus en parallèle peuvent chacun ajouter une occurrence avant de voir la limite
+        assertTrue(results.totalMatches >= FolderSearcher.MAX_TOTAL_MATCHES);
+        assertTrue(results.totalMatches < FolderSearcher.MAX_TOTAL_MATCHES + 64, "total " + results.totalMatches);
+        long delivered = results.matches.values().stream().mapToLong(List::size).sum();
+        assertEquals(results.totalMatches, delivered);
+    }
+
+    @Test
+    void utf16NeedleHasNoByteOrderMark() throws Exception {
+        Path file = tempDir.resolve("wide.log");
+        Files.write(file, "début ERROR fin\n".getBytes(StandardCharsets.UTF_16BE));
+
+        Results results = search("*.log", "", "ERROR", StandardCharsets.UTF_16);
+
+        assertEquals(List.of(12L), results.offsets(file));
+        assertEquals("début ERROR fin", results.matches.get(file).get(0).preview());
+    }
+
+    @Test
+    void findsUtf16LittleEndianText() throws Exception {
+        Path file = tempDir.resolve("wide.log");
+        Files.write(file, "a\nERROR\n".getBytes(StandardCharsets.UTF_16LE));
+
+        Results results = search("*.log", "", "ERROR", StandardCharsets.UTF_16LE);
+
+        assertEquals(List.of(4L), results.offsets(file));
+    }
+}
@@ -0,0 +1,100 @@
+package streamtext;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static streamtext.LogHighlighter.TokenType.*;
+
+class LogHighlighterTest {
+
+    private static String text(String line, LogHighlighter.Span span) {
+        return line.substring(span.start(), span.end());
+    }
+
+    private static LogHighlighter.Span find(List<LogHighlighter.Span> spans, LogHighlighter.TokenType type) {
+        return spans.stream().filter(span -> span.type() == type).findFirst().orElse(null);
+    }
+
+    @Test
+    void tokenizesLogbackLine() {
+        String line = "2026-03-14 09:26:53.589 ERROR [http-nio-8080-exec-1] com.acme.billing.InvoiceService - "
+                + "échec userId=42 status=\"payment refused\"";
+        List<LogHighlighter.Span> spans = LogHighlighter.tokenize(line);
+
+        assertEquals("2026-03-14 09:26:53.589", text(line, find(spans, TIMESTAMP)));
+        assertEquals("ERROR", text(line, find(spans, ERROR)));
+        assertEquals("com.acme.billing.InvoiceService", text(line, find(spans, LOGGER)));
+        assertEquals(List.of("userId", "42", "status", "\"payment refused\""),
+                spans.stream().filter(s -> s.type() == KEY || s.type() == VALUE).map(s -> text(line, s)).toList());
+
+        // Triés et sans chevauchement
+        for (int i = 1; i < spans.size(); i++) {
+            assertTrue(spans.get(i - 1).end() <= spans.get(i).start());
+        }
+    }
+
+    @Test
+    void tokenizesExceptionsAndStackFrames() {
+        String cause = "Caused by: java.lang.IllegalStateException: connexion fermée";
+        assertEquals("java.lang.IllegalStateException", text(cause, find(LogHighlighter.tokenize(cause), EXCEPTION)));
+
+        String frame = "\tat com.acme.Foo.bar(Foo.java:42)";
+        List<LogHighlighter.Span> spans = LogHighlighter.tokenize(frame);
+        assertEquals(1, spans.size());
+        assertEquals("at com.acme.Foo.bar(Foo.java:42)", text(frame, spans.get(0)));
+        assertEquals(STACK_FRAME, spans.get(0).type());
+    }
+
+    @Test
+    void recognisesOtherFormats() {
+        String syslog = "Mar  4 07:01:02 host sshd[812]: WARNING: too many failures";
+        List<LogHighlighter.Span> spans = LogHighlighter.tokenize(syslog);
+        assertEquals("Mar  4 07:01:02", text(syslog, find(spans, TIMESTAMP)));
+        assertEquals("WARNING", text(syslog, find(spans, WARN)));
+
+        assertTrue(LogHighlighter.tokenize("").isEmpty());
+        assertTrue(LogHighlighter.tokenize("texte sans structure").isEmpty());
+    }
+
+    @Test
+    void boundsWorkOnVeryLongLines() {
+        String line = "k=v ".repeat(100_000);
+        List<LogHighlighter.Span> spans = LogHighlighter.tokenize(line);
+        assertTrue(spans.stream().allMatch(span -> span.end() <= LogHighlighter.MAX_TOKENIZED_LENGTH));
+    }
+
+    @Test
+    void cachesSpansPerLineOffset() {
+        MemoryBudget budget = new MemoryBudget(1024 * 1024);
+        LogHighlighter highlighter = new LogHighlighter(2, budget);
+        String line = "12:00:00 INFO app.Main - démarrage";
+        List<LogHighlighter.Span> first = highlighter.spans(100, line);
+        assertSame(first, highlighter.spans(100, line));
+
+        // Même offset mais ligne complétée (fin d'un flux) : recalcul
+        assertNotSame(first, highlighter.spans(100, line + " ok=1"));
+
+        // Capacité 2 : l'entrée la moins récemment utilisée est évincée
+        List<LogHighlighter.Span> kept = highlighter.spans(200, line);
+        highlighter.spans(300, line);
+        highlighter.spans(200, line);
+        highlighter.spans(400, line);
+        assertSame(kept, highlighter.spans(200, line));
+
+        // Les entrées évincées ou effacées rendent leur part du budget
+        assertTrue(budget.getReserved() > 0);
+        highlighter.clear();
+        assertEquals(0, budget.getReserved());
+    }
+
+    @Test
+    void skipsCachingWhenBudgetIsExhausted() {
+        LogHighlighter highlighter = new LogHighlighter(16, new MemoryBudget(0));
+        String line = "12:00:00 INFO app.Main - démarrage";
+        List<LogHighlighter.Span> first = highlighter.spans(100, line);
+        assertEquals(first, highlighter.spans(100, line));
+        assertNotSame(first, highlighter.spans(100, line));
+    }
+}
@@ -0,0 +1,45 @@
+package streamtext;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryBudgetTest {
+
+    private static final int MB = 1024 * 1024;
+
+    @Test
+    void smallPooledBufferIsNotReusedWhenBudgetAllowsPreferredSize() {
+        MemoryBudget budget = new MemoryBudget(512L * MB);
+        budget.release(budget.allocate(MB, 64 * 1024, true));
+
+        ByteBuffer buffer = budget.allocate(4 * MB, 64 * 1024, true);
+        assertEquals(4 * MB, buffer.remaining());
+    }
+
+    @Test
+    void smallPooledBufferIsReusedWhenBudgetIsShort() {
+        MemoryBudget budget = new MemoryBudget(3L * MB);
+        ByteBuffer first = budget.allocate(MB, 64 * 1024, true);
+        ByteBuffer held = budget.allocate(MB, 64 * 1024, true);
+        budget.release(first);
+
+        // 1 MB libre + 1 MB dans le pool : 4 MB impossibles, le buffer recyclé est repris
+        ByteBuffer buffer = budget.allocate(4 * MB, 64 * 1024, true);
+        assertSame(first, buffer);
+        assertNotNull(held);
+    }
+
+    @Test
+    void pooledBuffersAreTrimmedToMakeRoom() {
+        MemoryBudget budget = new MemoryBudget(4L * MB);
+        budget.release(budget.allocate(MB, MB, false));
+        budget.release(budget.allocate(2 * MB, 2 * MB, true));
+
+        ByteBuffer buffer = budget.allocate(4 * MB, 64 * 1024, true);
+        assertEquals(4 * MB, buffer.remaining());
+        assertEquals(4L * MB, budget.getReserved());
+    }
+}
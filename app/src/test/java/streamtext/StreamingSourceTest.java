@@ -0,0 +1,126 @@
+package streamtext;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingSourceTest {
+
+    private static final int RING_SIZE = 1024 * 1024;
+
+    private static byte[] readAt(StreamingSource source, long position, int length) throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (source.read(buffer, position + buffer.position()) < 0) break;
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    @Test
+    void spillsOldDataAndReadsEverythingBack() throws Exception {
+        // Dix fois la taille de l'anneau : l'essentiel passe par le fichier temporaire
+        byte[] data = new byte[10 * RING_SIZE + 777];
+        new Random(7).nextBytes(data);
+
+        Pipe pipe = Pipe.open();
+        CountDownLatch ended = new CountDownLatch(1);
+        StreamingSource source = new StreamingSource(pipe.source(), "pipe", RING_SIZE);
+        source.start(new StreamingSource.Listener() {
+            @Override
+            public void onGrowth(long size) {
+            }
+
+            @Override
+            public void onEnd(long size) {
+                ended.countDown();
+            }
+
+            @Override
+            public void onError(String error) {
+                fail(error);
+            }
+        });
+
+        Thread writer = new Thread(() -> {
+            try (Pipe.SinkChannel sink = pipe.sink()) {
+                ByteBuffer buffer = ByteBuffer.wrap(data);
+                while (buffer.hasRemaining()) sink.write(buffer);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        writer.start();
+
+        assertTrue(ended.await(30, TimeUnit.SECONDS));
+        assertFalse(source.isGrowing());
+        assertEquals(data.length, source.size());
+
+        // Début (disque), zone à cheval disque/anneau, fin (anneau)
+        assertArrayEquals(Arrays.copyOfRange(data, 0, 4096), readAt(source, 0, 4096));
+        int boundary = data.length - RING_SIZE;
+        assertArrayEquals(Arrays.copyOfRange(data, boundary - 5000, boundary + 5000), readAt(source, boundary - 5000, 10000));
+        assertArrayEquals(Arrays.copyOfRange(data, data.length - 100, data.length), readAt(source, data.length - 100, 1000));
+        assertEquals(-1, source.read(ByteBuffer.allocate(10), data.length));
+
+        source.close();
+    }
+
+    @Test
+    void opensTheChannelOnTheIngestThread() throws Exception {
+        // Comme un tube nommé sans écrivain : l'ouverture bloque, start() ne doit pas attendre
+        CountDownLatch writerConnected = new CountDownLatch(1);
+        CountDownLatch ended = new CountDownLatch(1);
+        Pipe pipe = Pipe.open();
+        StreamingSource source = new StreamingSource(() -> {
+            try {
+                writerConnected.await();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+            return pipe.source();
+        }, "fifo", RING_SIZE);
+
+        source.start(new StreamingSource.Listener() {
+            @Override
+            public void onGrowth(long size) {
+            }
+
+            @Override
+            public void onEnd(long size) {
+                ended.countDown();
+            }
+
+            @Override
+            public void onError(String error) {
+                fail(error);
+            }
+        });
+        assertEquals(0, source.size());
+        assertTrue(source.isGrowing());
+
+        writerConnected.countDown();
+        try (Pipe.SinkChannel sink = pipe.sink()) {
+            sink.write(ByteBuffer.wrap(new byte[]{'o', 'k', '\n'}));
+        }
+        assertTrue(ended.await(10, TimeUnit.SECONDS));
+        assertArrayEquals(new byte[]{'o', 'k', '\n'}, readAt(source, 0, 3));
+        source.close();
+    }
+
+    @Test
+    void ringTakesAQuarterOfTheBudget() {
+        int mb = 1024 * 1024;
+        // Tas de 256 MB : budget de 64 MB, l'anneau en laisse les trois quarts aux chunks
+        assertEquals(16 * mb, StreamingSource.ringSize(64L * mb));
+        assertEquals(64 * mb, StreamingSource.ringSize(4096L * mb));
+        assertEquals(4 * mb, StreamingSource.ringSize(8L * mb));
+    }
+}
@@ -0,0 +1,152 @@
+package streamtext;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskSchedulerTest {
+
+    private final TaskScheduler scheduler = new TaskScheduler();
+    // Débloque toutes les tâches bloquantes en fin de test
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void releaseBlockedTasks() {
+        release.countDown();
+        scheduler.shutdown();
+    }
+
+    private Runnable blocker(CountDownLatch started) {
+        return () -> {
+            started.countDown();
+            await(release);
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) throw new AssertionError("délai dépassé");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Occupe toutes les places de concurrence de la voie
+    private void saturate(TaskScheduler.Lane lane, int slots) {
+        CountDownLatch started = new CountDownLatch(slots);
+        for (int i = 0; i < slots; i++) scheduler.submit(lane, blocker(started));
+        await(started);
+    }
+
+    @Test
+    void lowerLaneWaitsWhileHigherLaneHasQueuedWork() throws Exception {
+        saturate(TaskScheduler.Lane.VISIBLE, 4);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch bothDone = new CountDownLatch(2);
+        scheduler.submit(TaskScheduler.Lane.VISIBLE, () -> {
+            order.add("visible");
+            bothDone.countDown();
+        });
+        scheduler.submit(TaskScheduler.Lane.HOUSEKEEPING, () -> {
+            order.add("housekeeping");
+            bothDone.countDown();
+        });
+
+        // HOUSEKEEPING a une place libre mais une tâche VISIBLE attend : rien ne démarre
+        Thread.sleep(100);
+        assertEquals(List.of(), order);
+        assertEquals(0, scheduler.getRunning(TaskScheduler.Lane.HOUSEKEEPING));
+
+        // La file VISIBLE vidée, les deux tâches sont lancées ensemble
+        release.countDown();
+        await(bothDone);
+        assertEquals(2, order.size());
+    }
+
+    @Test
+    void respectsLaneConcurrencyLimit() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(10);
+        for (int i = 0; i < 10; i++) {
+            scheduler.submit(TaskScheduler.Lane.PREFETCH, () -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+        await(done);
+        assertEquals(2, peak.get());
+    }
+
+    @Test
+    void rejectsWhenLaneQueueIsFull() {
+        saturate(TaskScheduler.Lane.HOUSEKEEPING, 1);
+        for (int i = 0; i < 16; i++) scheduler.submit(TaskScheduler.Lane.HOUSEKEEPING, () -> { });
+        assertEquals(16, scheduler.getQueued(TaskScheduler.Lane.HOUSEKEEPING));
+        assertThrows(RejectedExecutionException.class, () -> scheduler.submit(TaskScheduler.Lane.HOUSEKEEPING, () -> { }));
+    }
+
+    @Test
+    void cancellingQueuedTaskFreesItsSlot() {
+        saturate(TaskScheduler.Lane.HOUSEKEEPING, 1);
+        List<Future<?>> queued = new ArrayList<>();
+        for (int i = 0; i < 16; i++) queued.add(scheduler.submit(TaskScheduler.Lane.HOUSEKEEPING, () -> { }));
+
+        queued.get(3).cancel(false);
+
+        assertEquals(15, scheduler.getQueued(TaskScheduler.Lane.HOUSEKEEPING));
+        assertDoesNotThrow(() -> scheduler.submit(TaskScheduler.Lane.HOUSEKEEPING, () -> { }));
+    }
+
+    @Test
+    void submitBlockingWaitsForQueueSpace() throws Exception {
+        saturate(TaskScheduler.Lane.HOUSEKEEPING, 1);
+        List<Future<?>> queued = new ArrayList<>();
+        for (int i = 0; i < 16; i++) queued.add(scheduler.submit(TaskScheduler.Lane.HOUSEKEEPING, () -> { }));
+
+        CountDownLatch submitted = new CountDownLatch(1);
+        Thread producer = Thread.ofVirtual().start(() -> {
+            try {
+                scheduler.submitBlocking(TaskScheduler.Lane.HOUSEKEEPING, () -> { });
+                submitted.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertFalse(submitted.await(100, TimeUnit.MILLISECONDS), "la file pleine aurait dû bloquer");
+        queued.get(0).cancel(false);
+        assertTrue(submitted.await(5, TimeUnit.SECONDS));
+        producer.join();
+        assertEquals(16, scheduler.getQueued(TaskScheduler.Lane.HOUSEKEEPING));
+    }
+
+    @Test
+    void shutdownCancelsQueuedTasksAndRejectsNewOnes() {
+        saturate(TaskScheduler.Lane.HOUSEKEEPING, 1);
+        Future<?> queued = scheduler.submit(TaskScheduler.Lane.HOUSEKEEPING, () -> { });
+
+        scheduler.shutdown();
+
+        assertTrue(queued.isCancelled());
+        assertEquals(0, scheduler.getQueued(TaskScheduler.Lane.HOUSEKEEPING));
+        assertThrows(RejectedExecutionException.class, () -> scheduler.submit(TaskScheduler.Lane.VISIBLE, () -> { }));
+        assertThrows(RejectedExecutionException.class, () -> scheduler.startDedicated("test", () -> { }));
+    }
+}
@@ -0,0 +1,181 @@
+package streamtext;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpdateDownloaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private byte[] payload;
+    private String payloadSha256;
+    private final List<String> rangeHeaders = new ArrayList<>();
+    private boolean ignoreRange = false;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        payload = new byte[3 * 1024 * 1024 + 123];
+        new Random(42).nextBytes(payload);
+        payloadSha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(payload));
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/streamtext.deb", this::servePayload);
+        server.createContext("/streamtext.deb.sha256", exchange ->
+                send(exchange, 200, (payloadSha256 + "  streamtext.deb\n").getBytes(StandardCharsets.UTF_8)));
+        server.createContext("/SHA256SUMS", exchange ->
+                send(exchange, 200, ("0".repeat(64) + "  other.deb\n" + payloadSha256 + " *streamtext.deb\n")
+                        .getBytes(StandardCharsets.UTF_8)));
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    private void servePayload(HttpExchange exchange) throws IOException {
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        rangeHeaders.add(range);
+        if (range == null || ignoreRange) {
+            send(exchange, 200, payload);
+            return;
+        }
+        int start = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+        if (start >= payload.length) {
+            send(exchange, 416, new byte[0]);
+            return;
+        }
+        exchange.getResponseHeaders().add("Content-Range",
+                "bytes " + start + "-" + (payload.length - 1) + "/" + payload.length);
+        send(exchange, 206, Arrays.copyOfRange(payload, start, payload.length));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    }
+
+    @Test
+    void downloadsAndVerifiesChecksum() throws Exception {
+        List<Long> progress = new ArrayList<>();
+        Path result = new UpdateDownloader().download(uri("/streamtext.deb"), tempDir.resolve("streamtext.deb"),
+                payloadSha256, (downloaded, total) -> progress.add(downloaded));
+
+        assertArrayEquals(payload, Files.readAllBytes(result));
+        assertFalse(Files.exists(tempDir.resolve("streamtext.deb.part")));
+        assertEquals(Long.valueOf(payload.length), progress.get(progress.size() - 1));
+        // Progression limitée dans le temps, pas un événement par lecture
+        assertTrue(progress.size() < 50, "trop d'événements de progression: " + progress.size());
+    }
+
+    @Test
+    void resumesFromPartialFile() throws Exception {
+        int half = payload.length / 2;
+        Files.write(tempDir.resolve("streamtext.deb.part"), Arrays.copyOf(payload, half));
+
+        Path result = new UpdateDownloader().download(uri("/streamtext.deb"), tempDir.resolve("streamtext.deb"),
+                payloadSha256, null);
+
+        assertEquals(List.of("bytes=" + half + "-"), rangeHeaders);
+        assertArrayEquals(payload, Files.readAllBytes(result));
+    }
+
+    @Test
+    void restartsWhenServerIgnoresRange() throws Exception {
+        ignoreRange = true;
+        Files.write(tempDir.resolve("streamtext.deb.part"), new byte[1000]);
+
+        Path result = new UpdateDownloader().download(uri("/streamtext.deb"), tempDir.resolve("streamtext.deb"),
+                payloadSha256, null);
+
+        assertArrayEquals(payload, Files.readAllBytes(result));
+    }
+
+    @Test
+    void completedPartialFileIsVerifiedWithoutDownloading() throws Exception {
+        Files.write(tempDir.resolve("streamtext.deb.part"), payload);
+
+        Path result = new UpdateDownloader().download(uri("/streamtext.deb"), tempDir.resolve("streamtext.deb"),
+                payloadSha256, null);
+
+        assertArrayEquals(payload, Files.readAllBytes(result));
+    }
+
+    @Test
+    void rejectsChecksumMismatch() {
+        assertThrows(IOException.class, () -> new UpdateDownloader().download(uri("/streamtext.deb"),
+                tempDir.resolve("streamtext.deb"), "0".repeat(64), null));
+        assertFalse(Files.exists(tempDir.resolve("streamtext.deb")));
+        assertFalse(Files.exists(tempDir.resolve("streamtext.deb.part")));
+    }
+
+    @Test
+    void refusesDownloadWithoutChecksum() {
+        assertThrows(IOException.class, () -> new UpdateDownloader().download(uri("/streamtext.deb"),
+                tempDir.resolve("streamtext.deb"), null, null));
+        assertTrue(rangeHeaders.isEmpty());
+    }
+
+    @Test
+    void createsPrivateUpdateDirectory() throws Exception {
+        Path dir = UpdateDownloader.privateDirectory(tempDir.resolve("cache/streamtext/update"));
+        assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(dir)));
+
+        // Répertoire existant trop ouvert : droits restreints
+        Files.setPosixFilePermissions(dir, PosixFilePermissions.fromString("rwxrwxrwx"));
+        UpdateDownloader.privateDirectory(dir);
+        assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(dir)));
+    }
+
+    @Test
+    void refusesSymlinkedUpdateDirectory() throws Exception {
+        Path elsewhere = Files.createDirectory(tempDir.resolve("elsewhere"));
+        Path link = Files.createSymbolicLink(tempDir.resolve("update"), elsewhere);
+        assertThrows(IOException.class, () -> UpdateDownloader.privateDirectory(link));
+    }
+
+    @Test
+    void readsPublishedChecksums() throws Exception {
+        UpdateDownloader downloader = new UpdateDownloader();
+        assertEquals(payloadSha256, downloader.fetchChecksum(uri("/streamtext.deb.sha256"), "streamtext.deb"));
+        assertEquals(payloadSha256, downloader.fetchChecksum(uri("/SHA256SUMS"), "streamtext.deb"));
+        assertNull(downloader.fetchChecksum(uri("/missing"), "streamtext.deb"));
+    }
+
+    @Test
+    void readsGitHubAssetDigest() {
+        assertEquals(payloadSha256, UpdateDownloader.assetDigest("sha256:" + payloadSha256.toUpperCase()));
+        assertNull(UpdateDownloader.assetDigest(null));
+        assertNull(UpdateDownloader.assetDigest("sha512:" + payloadSha256));
+        assertNull(UpdateDownloader.assetDigest("sha256:1234"));
+    }
+}